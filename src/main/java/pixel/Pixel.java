@@ -1,15 +1,40 @@
 package pixel;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
 
 import pixel.exception.PixelException;
+import pixel.index.DuplicateIndex;
+import pixel.index.TimeIndex;
+import pixel.index.TokenIndex;
+import pixel.parser.CommandHandler;
+import pixel.parser.CommandRegistry;
+import pixel.parser.ParsedCommand;
 import pixel.parser.Parser;
+import pixel.parser.SearchQuery;
+import pixel.parser.StreamingCommandHandler;
+import pixel.parser.Tokenizer;
 import pixel.response.ResponseFormatter;
+import pixel.storage.DeferredStorage;
+import pixel.storage.Durability;
+import pixel.storage.RecoveryReport;
+import pixel.storage.ShardedStorage;
+import pixel.storage.SnapshotFormat;
 import pixel.storage.Storage;
+import pixel.storage.StorageMode;
+import pixel.storage.TaskStorage;
 import pixel.task.Deadline;
 import pixel.task.Event;
 import pixel.task.Task;
+import pixel.task.TaskList;
 import pixel.task.Todo;
 
 /**
@@ -18,30 +43,99 @@ import pixel.task.Todo;
 public class Pixel {
     private static final String FILE_PATH = "./data/pixel.txt";
     private static final String welcomeMessage = "Hello! I'm Pixel.\nWhat can I do for you?";
+    private static final String SEGMENTS_PATH = "./data/segments";
+    private static final int DEFAULT_PAGE_SIZE = 100;
     private final ResponseFormatter responseFormatter;
-    private final Storage storage;
-    private ArrayList<Task> tasks;
+    private final ParsedCommand command = new ParsedCommand();
+    private final CommandRegistry commands = new CommandRegistry();
+    private final TokenIndex tokenIndex = new TokenIndex();
+    private final DuplicateIndex duplicateIndex = new DuplicateIndex();
+    private final TimeIndex timeIndex = new TimeIndex();
+    private final TaskStorage fileStorage;
+    /** The storage mutations are recorded to, which defers them while a batch runs. */
+    private TaskStorage storage;
+    /** The task list, or null until a command needs the whole list if the storage can load parts of it. */
+    private TaskList tasks;
     private boolean toExit = false;
     private Task pendingTask = null;
     private boolean isAwaitingConfirmation = false;
+    private int pageSize = DEFAULT_PAGE_SIZE;
 
     /**
      * Creates a new Pixel instance and loads existing tasks from storage.
      */
     public Pixel() {
-        this.tasks = new ArrayList<>();
+        this(new Storage(FILE_PATH, StorageMode.WRITE_BEHIND, Durability.PER_BATCH, SnapshotFormat.CHECKED_TEXT));
+    }
+
+    /**
+     * Creates a new Pixel instance that keeps its tasks in the given storage, and loads
+     * the existing tasks from it. If the storage can load parts of the list, the whole
+     * list is only loaded once a command needs it, and the due, between and on commands
+     * load only the months they need until then.
+     *
+     * @param storage The storage holding the task list
+     */
+    public Pixel(TaskStorage storage) {
         this.responseFormatter = new ResponseFormatter();
-        this.storage = new Storage(FILE_PATH);
+        registerCommands();
+        this.fileStorage = storage;
+        this.storage = storage;
+
+        if (!fileStorage.canLoadPartially()) {
+            loadTasks();
+        }
+    }
 
+    /**
+     * Creates a new Pixel instance that keeps its tasks in a directory of monthly
+     * segment files, which are only read once a command needs their tasks.
+     */
+    public static Pixel withSegments() {
+        return new Pixel(new ShardedStorage(SEGMENTS_PATH));
+    }
+
+    /**
+     * Loads the whole task list from storage unless it was already loaded.
+     */
+    private void loadTasks() {
+        if (tasks != null) {
+            return;
+        }
         try {
-            this.tasks = storage.load();
+            tasks = new TaskList(fileStorage.load());
         } catch (PixelException e) {
             // Start with empty task list if loading fails
+            tasks = new TaskList();
         }
+        tokenIndex.reset(tasks);
+        duplicateIndex.reset(tasks);
+        timeIndex.reset(tasks);
     }
 
+    /**
+     * Returns an index of the deadlines and events that holds at least those due or
+     * starting by the end of the given time's month. Until the whole list is loaded,
+     * only the months up to then are loaded into a new index.
+     */
+    private TimeIndex getTimeIndexUntil(LocalDateTime last) throws PixelException {
+        if (tasks != null) {
+            return timeIndex;
+        }
+        TimeIndex datedIndex = new TimeIndex();
+        datedIndex.reset(fileStorage.loadDatedUntil(YearMonth.from(last)));
+        return datedIndex;
+    }
+
+    /**
+     * Returns the welcome message, followed by a warning if the task file was corrupt.
+     */
     public String getWelcomeMessage() {
-        return welcomeMessage;
+        RecoveryReport report = fileStorage.getRecoveryReport();
+        if (report == null) {
+            return welcomeMessage;
+        }
+        return welcomeMessage + "\n" + responseFormatter.getRecoveryMessage(report);
     }
 
     /**
@@ -54,104 +148,284 @@ public class Pixel {
                 return handleConfirmation(input);
             }
 
-            String command = input.split("\\s+", 2)[0];
-            return switch (command) {
-            case "bye" -> handleBye();
-            case "list" -> responseFormatter.getListMessage(tasks);
-            case "mark" -> handleMark(input);
-            case "unmark" -> handleUnmark(input);
-            case "todo" -> handleTodo(input);
-            case "deadline" -> handleDeadline(input);
-            case "event" -> handleEvent(input);
-            case "delete" -> handleDelete(input);
-            case "find" -> handleFind(input);
-            default -> throw new PixelException("OOPS!!! I'm sorry, but I don't know what that means :-(");
-            };
+            Tokenizer.tokenize(input, command);
+            return commands.dispatch(command);
         } catch (PixelException e) {
             return e.getMessage();
         }
     }
 
-    private String handleBye() {
+    /**
+     * Writes the response to the user's input. Long responses, such as the task list,
+     * are written one task at a time rather than built in memory first.
+     *
+     * @param input The user's input
+     * @param out The destination of the response
+     * @throws IOException If the response cannot be written
+     */
+    public void respond(String input, Appendable out) throws IOException {
+        try {
+            if (isAwaitingConfirmation) {
+                out.append(handleConfirmation(input));
+                return;
+            }
+
+            Tokenizer.tokenize(input, command);
+            commands.dispatch(command, out);
+        } catch (PixelException e) {
+            out.append(e.getMessage());
+        }
+    }
+
+    /**
+     * Sets the number of tasks shown on each page of the task list.
+     *
+     * @param pageSize The number of tasks on a page, or 0 to show the whole list on one page
+     */
+    public void setPageSize(int pageSize) {
+        assert pageSize >= 0 : "Page size cannot be negative";
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Runs the commands one after another, as if each was entered by the user, until
+     * they run out or one of them is {@code bye}. The commands only change the task
+     * list in memory, which is saved once at the end, and also after every
+     * {@code persistInterval} commands if that is positive. If a response cannot be
+     * made, the commands that ran before it are still saved.
+     *
+     * @param commands The commands to run, in order
+     * @param persistInterval The number of commands between saves, or 0 to only save at the end
+     * @return The response to each command that was run, in order
+     * @throws PixelException If the task list cannot be saved
+     */
+    public List<String> runBatch(Stream<String> commands, int persistInterval) throws PixelException {
+        List<String> responses = new ArrayList<>();
+        try {
+            runBatch(commands, persistInterval, input -> responses.add(getResponse(input)));
+        } catch (IOException e) {
+            // Collecting responses in a list never throws
+            throw new UncheckedIOException(e);
+        }
+        return responses;
+    }
+
+    /**
+     * Runs the commands like {@link #runBatch(Stream, int)}, but writes each response
+     * to {@code out} as it is made, followed by a line separator.
+     *
+     * @param out The destination of the responses
+     * @throws PixelException If the task list cannot be saved
+     * @throws IOException If a response cannot be written
+     */
+    public void runBatch(Stream<String> commands, int persistInterval, Appendable out)
+            throws PixelException, IOException {
+        runBatch(commands, persistInterval, input -> {
+            respond(input, out);
+            out.append(System.lineSeparator());
+        });
+    }
+
+    private void runBatch(Stream<String> commands, int persistInterval, BatchResponder responder)
+            throws PixelException, IOException {
+        DeferredStorage batchStorage = new DeferredStorage(fileStorage);
+        storage = batchStorage;
+        try {
+            // Only commands that load the whole list record mutations, so a commit that saves has the list
+            Iterator<String> iterator = commands.iterator();
+            int count = 0;
+            while (iterator.hasNext() && !toExit) {
+                responder.respond(iterator.next());
+                count++;
+                if (persistInterval > 0 && count % persistInterval == 0) {
+                    batchStorage.commit(tasks);
+                }
+            }
+            batchStorage.commit(tasks);
+        } catch (IOException | RuntimeException e) {
+            // Still save the commands that ran, without hiding why the batch stopped
+            try {
+                batchStorage.commit(tasks);
+            } catch (PixelException commitFailure) {
+                e.addSuppressed(commitFailure);
+            }
+            throw e;
+        } finally {
+            storage = fileStorage;
+        }
+    }
+
+    private void registerCommands() {
+        commands.register("bye", command -> handleBye());
+        commands.register("list", (StreamingCommandHandler) this::writeList);
+        commands.register("mark", this::handleMark);
+        commands.register("unmark", this::handleUnmark);
+        commands.register("todo", this::handleTodo);
+        commands.register("deadline", this::handleDeadline);
+        commands.register("event", this::handleEvent);
+        commands.register("delete", this::handleDelete);
+        commands.register("find", (StreamingCommandHandler) this::writeFind);
+        commands.register("due", this::handleDue);
+        commands.register("between", this::handleBetween);
+        commands.register("on", this::handleOn);
+        commands.register("conflicts", command -> handleConflicts());
+    }
+
+    /**
+     * Adds a command, or replaces the handler of an existing one. The command can then
+     * be entered by its verb or any prefix of the verb that no other command shares.
+     *
+     * @param verb The first word of the command
+     * @param handler The handler that carries out the command
+     */
+    public void registerCommand(String verb, CommandHandler handler) {
+        commands.register(verb, handler);
+    }
+
+    private String handleBye() throws PixelException {
         toExit = true;
+        storage.flush();
         return responseFormatter.getFarewellMessage();
     }
 
-    private String handleMark(String input) throws PixelException {
-        int taskIndex = Parser.parseMarkIndex(input);
+    private String handleMark(ParsedCommand command) throws PixelException {
+        loadTasks();
+        int taskIndex = Parser.parseMarkIndex(command);
         validateTaskIndex(taskIndex, tasks.size());
         tasks.get(taskIndex).markAsDone();
-        storage.save(tasks);
+        storage.recordMark(tasks, taskIndex);
         return responseFormatter.getTaskMarkedMessage(tasks.get(taskIndex));
     }
 
-    private String handleUnmark(String input) throws PixelException {
-        int taskIndex = Parser.parseUnmarkIndex(input);
+    private String handleUnmark(ParsedCommand command) throws PixelException {
+        loadTasks();
+        int taskIndex = Parser.parseUnmarkIndex(command);
         validateTaskIndex(taskIndex, tasks.size());
         tasks.get(taskIndex).markAsNotDone();
-        storage.save(tasks);
+        storage.recordUnmark(tasks, taskIndex);
         return responseFormatter.getTaskUnmarkedMessage(tasks.get(taskIndex));
     }
 
-    private String handleTodo(String input) throws PixelException {
-        String description = Parser.parseTodoDescription(input);
+    private String handleTodo(ParsedCommand command) throws PixelException {
+        loadTasks();
+        String description = Parser.parseTodoDescription(command);
         Task task = new Todo(description);
 
-        if (isDuplicated(task)) {
-            return getDuplicateMessage(task);
+        Task duplicate = duplicateIndex.findDuplicate(task);
+        if (duplicate != null) {
+            return getDuplicateMessage(task, duplicate);
         }
 
-        tasks.add(task);
-        storage.save(tasks);
-        return responseFormatter.getTaskAddedMessage(task, tasks.size());
+        return addTask(task);
     }
 
-    private String handleDeadline(String input) throws PixelException {
-        String description = Parser.parseDeadlineDescription(input);
-        LocalDateTime by = Parser.parseDeadlineBy(input);
+    private String handleDeadline(ParsedCommand command) throws PixelException {
+        loadTasks();
+        String description = Parser.parseDeadlineDescription(command);
+        LocalDateTime by = Parser.parseDeadlineBy(command);
         Task task = new Deadline(description, by);
 
-        if (isDuplicated(task)) {
-            return getDuplicateMessage(task);
+        Task duplicate = duplicateIndex.findDuplicate(task);
+        if (duplicate != null) {
+            return getDuplicateMessage(task, duplicate);
         }
 
-        tasks.add(task);
-        storage.save(tasks);
-        return responseFormatter.getTaskAddedMessage(task, tasks.size());
+        return addTask(task);
     }
 
-    private String handleEvent(String input) throws PixelException {
-        String description = Parser.parseEventDescription(input);
-        LocalDateTime from = Parser.parseEventFrom(input);
-        LocalDateTime to = Parser.parseEventTo(input);
+    private String handleEvent(ParsedCommand command) throws PixelException {
+        loadTasks();
+        String description = Parser.parseEventDescription(command);
+        LocalDateTime from = Parser.parseEventFrom(command);
+        LocalDateTime to = Parser.parseEventTo(command);
         Task task = new Event(description, from, to);
 
-        if (isDuplicated(task)) {
-            return getDuplicateMessage(task);
+        Task duplicate = duplicateIndex.findDuplicate(task);
+        if (duplicate != null) {
+            return getDuplicateMessage(task, duplicate);
         }
 
+        return addTask(task);
+    }
+
+    /**
+     * Adds the task to the list and every index, and persists it. An event that
+     * overlaps other events is added with a warning listing them.
+     *
+     * @return The response to show the user
+     * @throws PixelException If the task cannot be persisted
+     */
+    private String addTask(Task task) throws PixelException {
+        ArrayList<Task> conflicts = new ArrayList<>();
+        if (task instanceof Event) {
+            Event event = (Event) task;
+            conflicts = timeIndex.findConflicting(event.getFrom(), event.getTo());
+        }
         tasks.add(task);
-        storage.save(tasks);
-        return responseFormatter.getTaskAddedMessage(task, tasks.size());
+        tokenIndex.add(task);
+        duplicateIndex.add(task);
+        timeIndex.add(task);
+        storage.recordAdd(tasks, task);
+        String message = responseFormatter.getTaskAddedMessage(task, tasks.size());
+        if (conflicts.isEmpty()) {
+            return message;
+        }
+        return message + "\n" + responseFormatter.getEventConflictMessage(conflicts);
     }
 
-    private String handleDelete(String input) throws PixelException {
-        int taskIndex = Parser.parseDeleteIndex(input);
+    private String handleDelete(ParsedCommand command) throws PixelException {
+        loadTasks();
+        int taskIndex = Parser.parseDeleteIndex(command);
         validateTaskIndex(taskIndex, tasks.size());
         Task task = tasks.remove(taskIndex);
-        storage.save(tasks);
+        tokenIndex.remove(task);
+        duplicateIndex.remove(task);
+        timeIndex.remove(task);
+        storage.recordDelete(tasks, taskIndex);
         return responseFormatter.getTaskDeletedMessage(task, tasks.size());
     }
 
-    private String handleFind(String input) throws PixelException {
-        String searchCriteria = Parser.parseFindKeyword(input);
-        ArrayList<Task> matchingTasks = new ArrayList<>();
-        for (Task task : tasks) {
-            if (Parser.matchesSearchCriteria(task.getDescription(), searchCriteria)) {
-                matchingTasks.add(task);
-            }
+    private void writeList(ParsedCommand command, Appendable out) throws PixelException, IOException {
+        loadTasks();
+        int page = Parser.parseListPage(command);
+        int pageCount = ResponseFormatter.countPages(tasks.size(), pageSize);
+        if (page > pageCount) {
+            throw new PixelException("OOPS!!! Your list only has " + pageCount
+                    + (pageCount == 1 ? " page." : " pages."));
+        }
+        responseFormatter.writeListMessage(out, tasks, page, pageSize);
+    }
+
+    private void writeFind(ParsedCommand command, Appendable out) throws PixelException, IOException {
+        loadTasks();
+        SearchQuery query = SearchQuery.compile(Parser.parseFindKeyword(command));
+        int limit = Parser.parseFindLimit(command);
+        responseFormatter.writeSearchResultsMessage(out, tokenIndex.find(query), limit);
+    }
+
+    private String handleDue(ParsedCommand command) throws PixelException {
+        LocalDateTime by = Parser.parseDueDate(command);
+        return responseFormatter.getDueMessage(getTimeIndexUntil(by).findDueBy(by));
+    }
+
+    private String handleBetween(ParsedCommand command) throws PixelException {
+        LocalDateTime from = Parser.parseBetweenFrom(command);
+        LocalDateTime to = Parser.parseBetweenTo(command);
+        if (from.isAfter(to)) {
+            throw new PixelException("OOPS!!! The start of the range cannot be after its end.");
         }
-        return responseFormatter.getSearchResultsMessage(matchingTasks);
+        return responseFormatter.getScheduleMessage(getTimeIndexUntil(to).findBetween(from, to));
+    }
+
+    private String handleOn(ParsedCommand command) throws PixelException {
+        LocalDate date = Parser.parseOnDate(command);
+        LocalDateTime end = date.atTime(LocalTime.MAX);
+        return responseFormatter.getScheduleMessage(getTimeIndexUntil(end).findBetween(date.atStartOfDay(), end));
+    }
+
+    private String handleConflicts() {
+        loadTasks();
+        return responseFormatter.getConflictsMessage(timeIndex.findAllConflicts());
     }
 
     /**
@@ -172,11 +446,9 @@ public class Pixel {
         isAwaitingConfirmation = false;
 
         if (response.equals("Y")) {
-            tasks.add(pendingTask);
-            storage.save(tasks);
-            String result = responseFormatter.getTaskAddedMessage(pendingTask, tasks.size());
+            Task task = pendingTask;
             pendingTask = null;
-            return result;
+            return addTask(task);
         } else if (response.equals("N")) {
             pendingTask = null;
             return "Okay, I won't add the duplicate task.";
@@ -186,56 +458,31 @@ public class Pixel {
         }
     }
 
-    private boolean isDuplicated(Task newTask) {
-        return findDuplicate(newTask) != null;
-    }
-
-    private Task findDuplicate(Task newTask) {
-        for (Task task : tasks) {
-            if (areDuplicates(task, newTask)) {
-                return task;
-            }
-        }
-        return null;
-    }
-
-    private boolean areDuplicates(Task task1, Task task2) {
-        // Different types are not duplicates
-        if (task1.getTaskType() != task2.getTaskType()) {
-            return false;
-        }
-
-        // Check description (case-insensitive)
-        if (!task1.getDescription().equalsIgnoreCase(task2.getDescription())) {
-            return false;
-        }
-
-        // For Deadline, check if dates match
-        if (task1 instanceof Deadline && task2 instanceof Deadline) {
-            Deadline d1 = (Deadline) task1;
-            Deadline d2 = (Deadline) task2;
-            return d1.getBy().equals(d2.getBy());
-        }
-
-        // For Event, check if dates match
-        if (task1 instanceof Event && task2 instanceof Event) {
-            Event e1 = (Event) task1;
-            Event e2 = (Event) task2;
-            return e1.getFrom().equals(e2.getFrom()) && e1.getTo().equals(e2.getTo());
-        }
-
-        // For Todo, just description match is enough
-        return true;
-    }
-
-    private String getDuplicateMessage(Task task) {
+    private String getDuplicateMessage(Task task, Task duplicate) {
         pendingTask = task;
         isAwaitingConfirmation = true;
-        return "This task already exists in your list:\n  " + findDuplicate(task)
+        return "This task already exists in your list:\n  " + duplicate
                 + "\n\nDo you still want to add it? (Y/N)";
     }
 
     public boolean toExit() {
         return toExit;
     }
+
+    /**
+     * Writes any pending changes to storage and releases its resources.
+     *
+     * @throws PixelException If the pending changes cannot be written
+     */
+    public void close() throws PixelException {
+        fileStorage.close();
+    }
+
+    /**
+     * Responds to one command of a batch.
+     */
+    @FunctionalInterface
+    private interface BatchResponder {
+        void respond(String input) throws IOException;
+    }
 }
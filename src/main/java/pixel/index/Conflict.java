@@ -0,0 +1,30 @@
+package pixel.index;
+
+import pixel.task.Event;
+
+/**
+ * A pair of events whose times overlap.
+ */
+public class Conflict {
+    private final Event earlier;
+    private final Event later;
+
+    /**
+     * Creates a conflict between two events.
+     *
+     * @param earlier The event that starts first
+     * @param later The event that starts at the same time or after the first
+     */
+    public Conflict(Event earlier, Event later) {
+        this.earlier = earlier;
+        this.later = later;
+    }
+
+    public Event getEarlier() {
+        return earlier;
+    }
+
+    public Event getLater() {
+        return later;
+    }
+}
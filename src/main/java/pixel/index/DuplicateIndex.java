@@ -0,0 +1,101 @@
+package pixel.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import pixel.task.Deadline;
+import pixel.task.Event;
+import pixel.task.Task;
+
+/**
+ * Index of tasks by everything that makes two tasks duplicates: their type, their
+ * description ignoring case and their dates. Finding the duplicate of a task is a
+ * single hash lookup.
+ *
+ * <p>Descriptions are compared as by {@link String#equalsIgnoreCase(String)}, which
+ * treats two characters as equal when their uppercase forms, or the lowercase forms of
+ * those, are equal. Mapping each character to the lowercase form of its uppercase form
+ * gives equal keys exactly for such descriptions.
+ */
+public class DuplicateIndex {
+    private final HashMap<String, List<Task>> tasksByKey = new HashMap<>();
+    private List<Task> pendingTasks = new ArrayList<>();
+
+    /**
+     * Replaces the indexed tasks with the given task list, which is indexed as it is
+     * on the next lookup. Until then, changes to the list need not be reported.
+     *
+     * @param tasks The task list
+     */
+    public void reset(List<Task> tasks) {
+        tasksByKey.clear();
+        pendingTasks = tasks;
+    }
+
+    /**
+     * Indexes a task that was just appended to the task list.
+     */
+    public void add(Task task) {
+        if (pendingTasks != null) {
+            return;
+        }
+        tasksByKey.computeIfAbsent(getKey(task), key -> new ArrayList<>(1)).add(task);
+    }
+
+    /**
+     * Removes a task that was just deleted from the task list.
+     */
+    public void remove(Task task) {
+        if (pendingTasks != null) {
+            return;
+        }
+        String key = getKey(task);
+        List<Task> duplicates = tasksByKey.get(key);
+        if (duplicates == null) {
+            return;
+        }
+        for (int i = 0; i < duplicates.size(); i++) {
+            if (duplicates.get(i) == task) {
+                duplicates.remove(i);
+                break;
+            }
+        }
+        if (duplicates.isEmpty()) {
+            tasksByKey.remove(key);
+        }
+    }
+
+    /**
+     * Returns the first task in the list that is a duplicate of the given task, or null
+     * if there is none.
+     */
+    public Task findDuplicate(Task task) {
+        if (pendingTasks != null) {
+            List<Task> tasks = pendingTasks;
+            pendingTasks = null;
+            for (Task indexed : tasks) {
+                add(indexed);
+            }
+        }
+        List<Task> duplicates = tasksByKey.get(getKey(task));
+        return duplicates == null ? null : duplicates.get(0);
+    }
+
+    private static String getKey(Task task) {
+        StringBuilder key = new StringBuilder();
+        key.append(task.getTaskType()).append('|');
+        if (task instanceof Deadline) {
+            key.append(((Deadline) task).getBy());
+        } else if (task instanceof Event) {
+            key.append(((Event) task).getFrom()).append('|').append(((Event) task).getTo());
+        }
+        // The description goes last, so separators inside it cannot make two keys collide
+        key.append('|');
+        String description = task.getDescription();
+        for (int i = 0; i < description.length(); i++) {
+            key.append(Character.toLowerCase(Character.toUpperCase(description.charAt(i))));
+        }
+        return key.toString();
+    }
+}
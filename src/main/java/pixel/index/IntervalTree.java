@@ -0,0 +1,191 @@
+package pixel.index;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+import pixel.task.Task;
+
+/**
+ * Balanced search tree of tasks that span a time interval, ordered by the start of
+ * the interval and then by insertion sequence. Each node also holds the latest end of
+ * any interval in its subtree, so the intervals overlapping a range are found without
+ * visiting subtrees that end before the range or start after it.
+ *
+ * <p>The tree is a treap: nodes get random priorities and are rotated so that every
+ * parent has a higher priority than its children, which keeps the expected depth
+ * logarithmic whatever the order of the intervals.
+ */
+class IntervalTree {
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    void clear() {
+        root = null;
+    }
+
+    /**
+     * Adds a task spanning the given interval. The sequence must be unique and orders
+     * tasks with the same start.
+     */
+    void add(Task task, long sequence, LocalDateTime start, LocalDateTime end) {
+        root = insert(root, new Node(task, sequence, start, end, random.nextInt()));
+    }
+
+    /**
+     * Removes the task added with the given sequence and start.
+     */
+    void remove(long sequence, LocalDateTime start) {
+        root = delete(root, sequence, start);
+    }
+
+    /**
+     * Adds every task whose interval overlaps the range from {@code from} to {@code to},
+     * both inclusive, to the list, ordered by the start of the interval.
+     */
+    void findOverlapping(LocalDateTime from, LocalDateTime to, ArrayList<Task> tasks) {
+        findOverlapping(root, from, to, tasks);
+    }
+
+    /**
+     * Adds every task in the tree to the list, ordered by the start of the interval.
+     */
+    void collect(ArrayList<Task> tasks) {
+        collect(root, tasks);
+    }
+
+    private static void collect(Node node, ArrayList<Task> tasks) {
+        if (node == null) {
+            return;
+        }
+        collect(node.left, tasks);
+        tasks.add(node.task);
+        collect(node.right, tasks);
+    }
+
+    private static void findOverlapping(Node node, LocalDateTime from, LocalDateTime to, ArrayList<Task> tasks) {
+        if (node == null || node.maxEnd.isBefore(from)) {
+            return;
+        }
+        findOverlapping(node.left, from, to, tasks);
+        if (node.start.isAfter(to)) {
+            // Every interval to the right starts even later
+            return;
+        }
+        if (!node.end.isBefore(from)) {
+            tasks.add(node.task);
+        }
+        findOverlapping(node.right, from, to, tasks);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (added.compareTo(node.start, node.sequence) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private static Node delete(Node node, long sequence, LocalDateTime start) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = node.compareTo(start, sequence);
+        if (comparison > 0) {
+            node.left = delete(node.left, sequence, start);
+        } else if (comparison < 0) {
+            node.right = delete(node.right, sequence, start);
+        } else {
+            return merge(node.left, node.right);
+        }
+        node.update();
+        return node;
+    }
+
+    /**
+     * Joins two treaps whose intervals all start before those of the second.
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.update();
+        left.update();
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.update();
+        right.update();
+        return right;
+    }
+
+    private static class Node {
+        private final Task task;
+        private final long sequence;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final int priority;
+        private LocalDateTime maxEnd;
+        private Node left;
+        private Node right;
+
+        Node(Task task, long sequence, LocalDateTime start, LocalDateTime end, int priority) {
+            this.task = task;
+            this.sequence = sequence;
+            this.start = start;
+            this.end = end;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+
+        /**
+         * Compares the interval of this node with one starting at the given time.
+         */
+        int compareTo(LocalDateTime otherStart, long otherSequence) {
+            int comparison = start.compareTo(otherStart);
+            return comparison != 0 ? comparison : Long.compare(sequence, otherSequence);
+        }
+
+        void update() {
+            maxEnd = end;
+            if (left != null && left.maxEnd.isAfter(maxEnd)) {
+                maxEnd = left.maxEnd;
+            }
+            if (right != null && right.maxEnd.isAfter(maxEnd)) {
+                maxEnd = right.maxEnd;
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package pixel.index;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import pixel.task.Deadline;
+import pixel.task.Event;
+import pixel.task.Task;
+
+/**
+ * Index of deadlines by their deadline and of events by the interval they span, used
+ * to find the tasks in a time range in O(log n + k) for k tasks found.
+ *
+ * <p>Deadlines are kept in a sorted map and events in an {@link IntervalTree}. Tasks at
+ * the same time are returned in list order. The index is built on the first query after
+ * {@link #reset(List)}, so loading the task list does not decode every task.
+ */
+public class TimeIndex {
+    private final TreeMap<LocalDateTime, List<Task>> deadlines = new TreeMap<>();
+    private final IntervalTree events = new IntervalTree();
+    /** Increases in list order, as tasks are only ever added at the end of the list. */
+    private final IdentityHashMap<Task, Long> sequences = new IdentityHashMap<>();
+    private List<Task> pendingTasks = new ArrayList<>();
+    private long nextSequence = 0;
+
+    /**
+     * Replaces the indexed tasks with the given task list, which is indexed as it is
+     * on the next query. Until then, changes to the list need not be reported.
+     *
+     * @param tasks The task list
+     */
+    public void reset(List<Task> tasks) {
+        deadlines.clear();
+        events.clear();
+        sequences.clear();
+        nextSequence = 0;
+        pendingTasks = tasks;
+    }
+
+    /**
+     * Indexes a task that was just appended to the task list. Todos are not indexed.
+     */
+    public void add(Task task) {
+        if (pendingTasks != null) {
+            return;
+        }
+        index(task);
+    }
+
+    /**
+     * Removes a task that was just deleted from the task list.
+     */
+    public void remove(Task task) {
+        if (pendingTasks != null) {
+            return;
+        }
+        Long sequence = sequences.remove(task);
+        if (sequence == null) {
+            return;
+        }
+        if (task instanceof Deadline) {
+            LocalDateTime by = ((Deadline) task).getBy();
+            List<Task> due = deadlines.get(by);
+            due.removeIf(indexed -> indexed == task);
+            if (due.isEmpty()) {
+                deadlines.remove(by);
+            }
+        } else {
+            events.remove(sequence, ((Event) task).getFrom());
+        }
+    }
+
+    /**
+     * Returns the deadlines due at or before the given time, earliest first.
+     */
+    public ArrayList<Task> findDueBy(LocalDateTime time) {
+        build();
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (List<Task> due : deadlines.headMap(time, true).values()) {
+            tasks.addAll(due);
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the deadlines due within the given range and the events overlapping it,
+     * ordered by their deadline or start. Both ends of the range are inclusive.
+     */
+    public ArrayList<Task> findBetween(LocalDateTime from, LocalDateTime to) {
+        build();
+        ArrayList<Task> due = new ArrayList<>();
+        for (List<Task> tasks : deadlines.subMap(from, true, to, true).values()) {
+            due.addAll(tasks);
+        }
+        ArrayList<Task> overlapping = new ArrayList<>();
+        events.findOverlapping(from, to, overlapping);
+
+        // Both lists are already ordered, so merging them keeps the cost linear in the result
+        ArrayList<Task> tasks = new ArrayList<>(due.size() + overlapping.size());
+        int i = 0;
+        int j = 0;
+        while (i < due.size() || j < overlapping.size()) {
+            if (j == overlapping.size() || (i < due.size() && isBefore(due.get(i), overlapping.get(j)))) {
+                tasks.add(due.get(i++));
+            } else {
+                tasks.add(overlapping.get(j++));
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the events that overlap the given interval by more than a single instant,
+     * ordered by their start. Events that only touch the interval at its start or end
+     * do not conflict with it.
+     */
+    public ArrayList<Task> findConflicting(LocalDateTime from, LocalDateTime to) {
+        build();
+        ArrayList<Task> overlapping = new ArrayList<>();
+        events.findOverlapping(from, to, overlapping);
+        overlapping.removeIf(task -> !overlaps((Event) task, from, to));
+        return overlapping;
+    }
+
+    /**
+     * Returns every pair of events that conflict, as by {@link #findConflicting}.
+     *
+     * <p>A sweep line visits the events by start while keeping the events that have not
+     * ended yet ordered by their end. Each event conflicts with every active event that
+     * is still active at its start, so the pairs are found in O(n log n + k) for k pairs.
+     *
+     * @return The pairs, ordered by the start of the later event and then by the end of the earlier
+     */
+    public ArrayList<Conflict> findAllConflicts() {
+        build();
+        ArrayList<Task> byStart = new ArrayList<>();
+        events.collect(byStart);
+
+        TreeSet<Event> active = new TreeSet<>(Comparator.comparing(Event::getTo)
+                .thenComparingLong(sequences::get));
+        ArrayList<Conflict> conflicts = new ArrayList<>();
+        for (Task task : byStart) {
+            Event event = (Event) task;
+            while (!active.isEmpty() && !active.first().getTo().isAfter(event.getFrom())) {
+                active.pollFirst();
+            }
+            for (Event earlier : active) {
+                if (overlaps(earlier, event.getFrom(), event.getTo())) {
+                    conflicts.add(new Conflict(earlier, event));
+                }
+            }
+            active.add(event);
+        }
+        return conflicts;
+    }
+
+    private static boolean overlaps(Event event, LocalDateTime from, LocalDateTime to) {
+        if (from.equals(to)) {
+            // An instant conflicts with the events running through it
+            return event.getFrom().isBefore(from) && event.getTo().isAfter(from);
+        }
+        return event.getFrom().isBefore(to) && event.getTo().isAfter(from);
+    }
+
+    private boolean isBefore(Task deadline, Task event) {
+        int comparison = ((Deadline) deadline).getBy().compareTo(((Event) event).getFrom());
+        return comparison < 0 || (comparison == 0 && sequences.get(deadline) < sequences.get(event));
+    }
+
+    private void build() {
+        if (pendingTasks == null) {
+            return;
+        }
+        List<Task> tasks = pendingTasks;
+        pendingTasks = null;
+        for (Task task : tasks) {
+            index(task);
+        }
+    }
+
+    private void index(Task task) {
+        long sequence = nextSequence++;
+        if (task instanceof Deadline) {
+            sequences.put(task, sequence);
+            deadlines.computeIfAbsent(((Deadline) task).getBy(), by -> new ArrayList<>(1)).add(task);
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            sequences.put(task, sequence);
+            events.add(task, sequence, event.getFrom(), event.getTo());
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package pixel.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import pixel.parser.SearchQuery;
+import pixel.task.Task;
+
+/**
+ * Inverted index from the words of task descriptions to the tasks containing them,
+ * used to find tasks without scanning the whole list.
+ *
+ * <p>A word is a run of non-whitespace characters of the lowercased description.
+ * Keywords never contain whitespace, so a description contains a keyword exactly when
+ * one of its words does. The words containing each keyword are found through a
+ * {@link TrigramIndex} of the distinct words, and the tasks holding those words are
+ * checked against the whole query with {@link SearchQuery#matches(String)}. A search
+ * therefore gives the same results as matching every description, in list order, at a
+ * cost that depends on the matching words and tasks rather than on the size of the list.
+ *
+ * <p>Tasks are indexed by identity. Marking a task does not change its description,
+ * so it leaves the index as it is. The index is built on the first search after
+ * {@link #reset(List)}, so loading the task list does not decode every description.
+ */
+public class TokenIndex {
+    private final Map<String, Set<Task>> postings = new HashMap<>();
+    private final TrigramIndex words = new TrigramIndex();
+    /** Increases in list order, as tasks are only ever added at the end of the list. */
+    private final IdentityHashMap<Task, Long> sequences = new IdentityHashMap<>();
+    private List<Task> pendingTasks = new ArrayList<>();
+    private long nextSequence = 0;
+
+    /**
+     * Replaces the indexed tasks with the given task list, which is indexed as it is
+     * on the next search. Until then, changes to the list need not be reported.
+     *
+     * @param tasks The task list
+     */
+    public void reset(List<Task> tasks) {
+        postings.clear();
+        words.clear();
+        sequences.clear();
+        nextSequence = 0;
+        pendingTasks = tasks;
+    }
+
+    /**
+     * Indexes a task that was just appended to the task list.
+     */
+    public void add(Task task) {
+        if (pendingTasks != null) {
+            // Indexed with the rest of the list when it is built
+            return;
+        }
+        index(task);
+    }
+
+    /**
+     * Removes a task that was just deleted from the task list.
+     */
+    public void remove(Task task) {
+        if (pendingTasks != null || sequences.remove(task) == null) {
+            return;
+        }
+        for (String word : getWords(task)) {
+            Set<Task> posting = postings.get(word);
+            posting.remove(task);
+            if (posting.isEmpty()) {
+                postings.remove(word);
+                words.remove(word);
+            }
+        }
+    }
+
+    /**
+     * Returns the tasks whose descriptions contain every keyword of the query, ignoring
+     * case, in list order.
+     */
+    public ArrayList<Task> find(SearchQuery query) {
+        build();
+        List<String> keywords = query.getKeywords();
+        if (keywords.isEmpty()) {
+            return sortInListOrder(sequences.keySet());
+        }
+
+        ArrayList<List<Set<Task>>> keywordPostings = new ArrayList<>();
+        for (String keyword : keywords) {
+            List<Set<Task>> matching = findPostings(keyword);
+            if (matching.isEmpty()) {
+                return new ArrayList<>();
+            }
+            keywordPostings.add(matching);
+        }
+        keywordPostings.sort(Comparator.comparingLong(TokenIndex::countEntries));
+
+        // Start from the rarest keyword, so the candidates only ever shrink from the smallest set
+        Set<Task> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Set<Task> posting : keywordPostings.get(0)) {
+            candidates.addAll(posting);
+        }
+        for (int i = 1; i < keywordPostings.size() && !candidates.isEmpty(); i++) {
+            List<Set<Task>> matching = keywordPostings.get(i);
+            candidates.removeIf(task -> !containsTask(matching, task));
+        }
+        candidates.removeIf(task -> !query.matches(task.getDescription()));
+        return sortInListOrder(candidates);
+    }
+
+    /**
+     * Returns the posting lists of every word containing the keyword.
+     */
+    private List<Set<Task>> findPostings(String keyword) {
+        List<String> matchingWords = words.findContaining(keyword);
+        ArrayList<Set<Task>> matching = new ArrayList<>(matchingWords.size());
+        for (String word : matchingWords) {
+            matching.add(postings.get(word));
+        }
+        return matching;
+    }
+
+    private static long countEntries(List<Set<Task>> matching) {
+        long count = 0;
+        for (Set<Task> posting : matching) {
+            count += posting.size();
+        }
+        return count;
+    }
+
+    private static boolean containsTask(List<Set<Task>> matching, Task task) {
+        for (Set<Task> posting : matching) {
+            if (posting.contains(task)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ArrayList<Task> sortInListOrder(Set<Task> tasks) {
+        ArrayList<Task> sorted = new ArrayList<>(tasks);
+        sorted.sort(Comparator.comparingLong(sequences::get));
+        return sorted;
+    }
+
+    private void build() {
+        if (pendingTasks == null) {
+            return;
+        }
+        List<Task> tasks = pendingTasks;
+        pendingTasks = null;
+        for (Task task : tasks) {
+            index(task);
+        }
+    }
+
+    private void index(Task task) {
+        sequences.put(task, nextSequence++);
+        for (String word : getWords(task)) {
+            Set<Task> posting = postings.get(word);
+            if (posting == null) {
+                posting = Collections.newSetFromMap(new IdentityHashMap<>());
+                postings.put(word, posting);
+                words.add(word);
+            }
+            posting.add(task);
+        }
+    }
+
+    /**
+     * Returns the distinct words of the task's lowercased description.
+     */
+    private static Set<String> getWords(Task task) {
+        String description = task.getDescription().toLowerCase();
+        HashSet<String> words = new HashSet<>();
+        int start = -1;
+        for (int i = 0; i <= description.length(); i++) {
+            boolean isSeparator = i == description.length() || SearchQuery.isWhitespace(description.charAt(i));
+            if (isSeparator && start >= 0) {
+                words.add(description.substring(start, i));
+                start = -1;
+            } else if (!isSeparator && start < 0) {
+                start = i;
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,95 @@
+package pixel.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Index from every three-character substring to the words containing it, used to
+ * find the words containing a keyword without comparing it against every word.
+ *
+ * <p>The candidates for a keyword are the words holding all of its trigrams, which are
+ * then checked with {@link String#contains(CharSequence)}. A keyword shorter than three
+ * characters has no trigram, so it is compared against every word instead.
+ */
+class TrigramIndex {
+    private static final int GRAM_LENGTH = 3;
+
+    private final HashMap<String, Set<String>> grams = new HashMap<>();
+    private final HashSet<String> words = new HashSet<>();
+
+    void add(String word) {
+        if (!words.add(word)) {
+            return;
+        }
+        for (int i = 0; i + GRAM_LENGTH <= word.length(); i++) {
+            grams.computeIfAbsent(word.substring(i, i + GRAM_LENGTH), gram -> new HashSet<>()).add(word);
+        }
+    }
+
+    void remove(String word) {
+        if (!words.remove(word)) {
+            return;
+        }
+        for (int i = 0; i + GRAM_LENGTH <= word.length(); i++) {
+            String gram = word.substring(i, i + GRAM_LENGTH);
+            Set<String> gramWords = grams.get(gram);
+            if (gramWords != null) {
+                gramWords.remove(word);
+                if (gramWords.isEmpty()) {
+                    grams.remove(gram);
+                }
+            }
+        }
+    }
+
+    void clear() {
+        grams.clear();
+        words.clear();
+    }
+
+    /**
+     * Returns every indexed word containing the keyword.
+     */
+    List<String> findContaining(String keyword) {
+        ArrayList<String> matches = new ArrayList<>();
+        if (keyword.length() < GRAM_LENGTH) {
+            for (String word : words) {
+                if (word.contains(keyword)) {
+                    matches.add(word);
+                }
+            }
+            return matches;
+        }
+
+        ArrayList<Set<String>> gramWords = new ArrayList<>();
+        for (int i = 0; i + GRAM_LENGTH <= keyword.length(); i++) {
+            Set<String> found = grams.get(keyword.substring(i, i + GRAM_LENGTH));
+            if (found == null) {
+                return matches;
+            }
+            gramWords.add(found);
+        }
+        gramWords.sort(Comparator.comparingInt(Set::size));
+
+        // Candidates come from the rarest trigram and are checked against the others and the keyword
+        for (String word : gramWords.get(0)) {
+            if (isInAll(gramWords, word) && word.contains(keyword)) {
+                matches.add(word);
+            }
+        }
+        return matches;
+    }
+
+    private static boolean isInAll(List<Set<String>> gramWords, String word) {
+        for (int i = 1; i < gramWords.size(); i++) {
+            if (!gramWords.get(i).contains(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,17 @@
+package pixel.parser;
+
+import pixel.exception.PixelException;
+
+/**
+ * Handles one kind of command, such as adding a todo.
+ */
+@FunctionalInterface
+public interface CommandHandler {
+    /**
+     * Carries out the command and returns the response to show the user.
+     *
+     * @param command The tokenized command
+     * @throws PixelException If the command is invalid or cannot be carried out
+     */
+    String handle(ParsedCommand command) throws PixelException;
+}
@@ -0,0 +1,111 @@
+package pixel.parser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import pixel.exception.PixelException;
+
+/**
+ * Maps command verbs to their handlers. A command may also be entered as any prefix
+ * of its verb that no other verb starts with, such as "l" for "list".
+ *
+ * <p>Every accepted prefix is put in a hash map when a command is registered, so
+ * dispatching a command costs one lookup however many commands are registered.
+ */
+public class CommandRegistry {
+    private final Map<String, CommandHandler> verbs = new LinkedHashMap<>();
+    /** Handler for every verb and every prefix that only one verb starts with. */
+    private final Map<String, CommandHandler> handlers = new HashMap<>();
+    /** Verbs starting with each prefix that more than one verb starts with. */
+    private final Map<String, List<String>> ambiguousPrefixes = new HashMap<>();
+
+    /**
+     * Registers the handler for the given verb, replacing any handler registered for
+     * it before.
+     *
+     * @param verb The first word of the commands to handle
+     * @param handler The handler for those commands
+     */
+    public void register(String verb, CommandHandler handler) {
+        if (verb.isEmpty()) {
+            throw new IllegalArgumentException("A command verb cannot be empty");
+        }
+        verbs.put(verb, handler);
+        rebuildPrefixes();
+    }
+
+    private void rebuildPrefixes() {
+        Map<String, List<String>> candidates = new HashMap<>();
+        for (String verb : verbs.keySet()) {
+            for (int length = 1; length <= verb.length(); length++) {
+                candidates.computeIfAbsent(verb.substring(0, length), prefix -> new ArrayList<>()).add(verb);
+            }
+        }
+
+        handlers.clear();
+        ambiguousPrefixes.clear();
+        for (Map.Entry<String, List<String>> entry : candidates.entrySet()) {
+            String prefix = entry.getKey();
+            List<String> matches = entry.getValue();
+            if (verbs.containsKey(prefix)) {
+                handlers.put(prefix, verbs.get(prefix));
+            } else if (matches.size() == 1) {
+                handlers.put(prefix, verbs.get(matches.get(0)));
+            } else {
+                ambiguousPrefixes.put(prefix, matches);
+            }
+        }
+    }
+
+    /**
+     * Returns the handler for the given verb or unique prefix of a verb, or null if
+     * there is none.
+     */
+    public CommandHandler find(String verb) {
+        return handlers.get(verb);
+    }
+
+    /**
+     * Runs the handler for the command's verb.
+     *
+     * @return The response of the handler
+     * @throws PixelException If the verb is unknown or ambiguous, or the handler fails
+     */
+    public String dispatch(ParsedCommand command) throws PixelException {
+        return resolve(command.getVerb()).handle(command);
+    }
+
+    /**
+     * Runs the handler for the command's verb and writes its response. A
+     * {@link StreamingCommandHandler} writes its response piece by piece.
+     *
+     * @param out The destination of the response
+     * @throws PixelException If the verb is unknown or ambiguous, or the handler fails
+     * @throws IOException If the response cannot be written
+     */
+    public void dispatch(ParsedCommand command, Appendable out) throws PixelException, IOException {
+        CommandHandler handler = resolve(command.getVerb());
+        if (handler instanceof StreamingCommandHandler) {
+            ((StreamingCommandHandler) handler).handle(command, out);
+        } else {
+            out.append(handler.handle(command));
+        }
+    }
+
+    private CommandHandler resolve(String verb) throws PixelException {
+        CommandHandler handler = handlers.get(verb);
+        if (handler != null) {
+            return handler;
+        }
+
+        List<String> matches = ambiguousPrefixes.get(verb);
+        if (matches != null) {
+            throw new PixelException("OOPS!!! \"" + verb + "\" could be any of: " + String.join(", ", matches));
+        }
+        throw new PixelException("OOPS!!! I'm sorry, but I don't know what that means :-(");
+    }
+}
@@ -0,0 +1,232 @@
+package pixel.parser;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import pixel.exception.PixelException;
+
+/**
+ * Parses and formats the {@code yyyy-MM-dd[ HHmm]} dates used in commands and the
+ * {@code yyyy-MM-dd HHmm} dates used in the task file, reading characters at given
+ * offsets instead of going through {@link DateTimeFormatter}.
+ *
+ * <p>Well-formed dates in years 1 to 9999 are handled directly. Anything else, such as
+ * a day past the end of its month, is handed to the same formatters as before, so
+ * every input is accepted, adjusted or rejected exactly as the formatters would.
+ */
+public class DateTimeCodec {
+    /** Message of the exception thrown for a date in a command that cannot be parsed. */
+    public static final String INVALID_DATE_MESSAGE = "OOPS!!! Invalid date format. Use yyyy-MM-dd or yyyy-MM-dd HHmm";
+    private static final DateTimeFormatter INPUT_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter INPUT_TIME_FORMATTER = DateTimeFormatter.ofPattern("HHmm");
+    private static final DateTimeFormatter STORAGE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+    private static final int DATE_LENGTH = 10;
+    private static final int DATE_TIME_LENGTH = 15;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * Parses a date in a command, which is a date with an optional time. The time
+     * defaults to 23:59 when only the date is given.
+     *
+     * @param text The text holding the date
+     * @param start The index of the first character of the date
+     * @param end The index after the last character of the date
+     * @throws PixelException If the date/time format is invalid.
+     */
+    public static LocalDateTime parseInput(CharSequence text, int start, int end) throws PixelException {
+        int length = end - start;
+        if (length == DATE_LENGTH) {
+            int date = readDate(text, start);
+            if (date >= 0) {
+                return LocalDateTime.of(date / 10000, date / 100 % 100, date % 100, 23, 59);
+            }
+        }
+        if (length == DATE_TIME_LENGTH) {
+            long dateTime = readDateTime(text, start);
+            if (dateTime >= 0) {
+                return toLocalDateTime(dateTime);
+            }
+        }
+        return parseInputWithFormatters(text.subSequence(start, end).toString());
+    }
+
+    private static LocalDateTime parseInputWithFormatters(String dateTimeStr) throws PixelException {
+        try {
+            String[] parts = dateTimeStr.split(" ");
+            LocalDate date = LocalDate.parse(parts[0], INPUT_DATE_FORMATTER);
+            if (parts.length > 1) {
+                return LocalDateTime.of(date, LocalTime.parse(parts[1], INPUT_TIME_FORMATTER));
+            }
+            return LocalDateTime.of(date, LocalTime.of(23, 59));
+        } catch (DateTimeParseException e) {
+            throw new PixelException(INVALID_DATE_MESSAGE);
+        }
+    }
+
+    /**
+     * Parses a date in the task file.
+     *
+     * @return The date, or null if it is malformed
+     */
+    public static LocalDateTime parseStorage(CharSequence text, int start, int end) {
+        if (end - start == DATE_TIME_LENGTH) {
+            long dateTime = readDateTime(text, start);
+            if (dateTime >= 0) {
+                return toLocalDateTime(dateTime);
+            }
+        }
+        try {
+            return LocalDateTime.parse(text.subSequence(start, end), STORAGE_FORMATTER);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses a date in the task file into minutes since 1970-01-01 00:00, treating the
+     * date as UTC.
+     *
+     * @return The epoch minute, or {@link Long#MIN_VALUE} if the date is malformed
+     */
+    public static long parseStorageEpochMinute(CharSequence text, int start, int end) {
+        if (end - start == DATE_TIME_LENGTH) {
+            long dateTime = readDateTime(text, start);
+            if (dateTime >= 0) {
+                int date = (int) (dateTime / 10000);
+                int time = (int) (dateTime % 10000);
+                return toEpochDay(date / 10000, date / 100 % 100, date % 100) * MINUTES_PER_DAY
+                        + time / 100 * 60 + time % 100;
+            }
+        }
+        LocalDateTime dateTime = parseStorage(text, start, end);
+        if (dateTime == null) {
+            return Long.MIN_VALUE;
+        }
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * Appends the date in the task file format.
+     */
+    public static void appendStorage(StringBuilder builder, LocalDateTime dateTime) {
+        int year = dateTime.getYear();
+        if (year < 1 || year > 9999) {
+            STORAGE_FORMATTER.formatTo(dateTime, builder);
+            return;
+        }
+        appendDigits(builder, year, 4);
+        builder.append('-');
+        appendDigits(builder, dateTime.getMonthValue(), 2);
+        builder.append('-');
+        appendDigits(builder, dateTime.getDayOfMonth(), 2);
+        builder.append(' ');
+        appendDigits(builder, dateTime.getHour(), 2);
+        appendDigits(builder, dateTime.getMinute(), 2);
+    }
+
+    private static void appendDigits(StringBuilder builder, int value, int width) {
+        for (int divisor = width == 4 ? 1000 : 10; divisor > 0; divisor /= 10) {
+            builder.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(long dateTime) {
+        int date = (int) (dateTime / 10000);
+        int time = (int) (dateTime % 10000);
+        return LocalDateTime.of(date / 10000, date / 100 % 100, date % 100, time / 100, time % 100);
+    }
+
+    /**
+     * Reads a valid {@code yyyy-MM-dd HHmm} date and time.
+     *
+     * @return The digits of the date and time as the number yyyyMMddHHmm, or -1 if the
+     *     characters are not such a date and time
+     */
+    private static long readDateTime(CharSequence text, int start) {
+        int date = readDate(text, start);
+        int time = readTime(text, start + DATE_LENGTH + 1);
+        if (date < 0 || time < 0 || text.charAt(start + DATE_LENGTH) != ' ') {
+            return -1;
+        }
+        return date * 10000L + time;
+    }
+
+    /**
+     * Reads a valid {@code yyyy-MM-dd} date.
+     *
+     * @return The digits of the date as the number yyyyMMdd, or -1 if the characters
+     *     are not such a date
+     */
+    private static int readDate(CharSequence text, int start) {
+        int year = readDigits(text, start, 4);
+        int month = readDigits(text, start + 5, 2);
+        int day = readDigits(text, start + 8, 2);
+        if (year < 1 || month < 1 || month > 12 || day < 1 || text.charAt(start + 4) != '-'
+                || text.charAt(start + 7) != '-' || day > lengthOfMonth(year, month)) {
+            return -1;
+        }
+        return year * 10000 + month * 100 + day;
+    }
+
+    /**
+     * Reads a valid {@code HHmm} time.
+     *
+     * @return The digits of the time as the number HHmm, or -1 if the characters are
+     *     not such a time
+     */
+    private static int readTime(CharSequence text, int start) {
+        int hour = readDigits(text, start, 2);
+        int minute = readDigits(text, start + 2, 2);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return -1;
+        }
+        return hour * 100 + minute;
+    }
+
+    /**
+     * Returns the value of the ASCII digits, or -1 if any character is not one.
+     */
+    private static int readDigits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+        case 2:
+            return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+
+    /**
+     * Returns the number of days from 1970-01-01 to the given date in the proleptic
+     * Gregorian calendar.
+     */
+    private static long toEpochDay(int year, int month, int day) {
+        // Count years from March so that the leap day falls at the end of the year
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+}
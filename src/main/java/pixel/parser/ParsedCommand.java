@@ -0,0 +1,184 @@
+package pixel.parser;
+
+/**
+ * Result of tokenizing a command, holding the positions of its parts in the input
+ * rather than copies of them. One instance is reused for every command; each call to
+ * {@link Tokenizer#tokenize(String, ParsedCommand)} overwrites it.
+ *
+ * <p>Every span is trimmed and given as a start (inclusive) and end (exclusive) index
+ * into the input. A span whose start is -1 is absent from the command.
+ */
+public class ParsedCommand {
+    private String input = "";
+    private int verbEnd = 0;
+    private int argumentStart = 0;
+    private int argumentEnd = 0;
+    private int deadlineDescriptionStart = -1;
+    private int deadlineDescriptionEnd = -1;
+    private int eventDescriptionStart = -1;
+    private int eventDescriptionEnd = -1;
+    private int byStart = -1;
+    private int byEnd = -1;
+    private int fromStart = -1;
+    private int fromEnd = -1;
+    private int toStart = -1;
+    private int toEnd = -1;
+
+    void reset(String input, int verbEnd, int argumentStart, int argumentEnd) {
+        this.input = input;
+        this.verbEnd = verbEnd;
+        this.argumentStart = argumentStart;
+        this.argumentEnd = argumentEnd;
+        deadlineDescriptionStart = -1;
+        deadlineDescriptionEnd = -1;
+        eventDescriptionStart = -1;
+        eventDescriptionEnd = -1;
+        byStart = -1;
+        byEnd = -1;
+        fromStart = -1;
+        fromEnd = -1;
+        toStart = -1;
+        toEnd = -1;
+    }
+
+    void setDeadlineDescription(int start, int end) {
+        deadlineDescriptionStart = start;
+        deadlineDescriptionEnd = end;
+    }
+
+    void setEventDescription(int start, int end) {
+        eventDescriptionStart = start;
+        eventDescriptionEnd = end;
+    }
+
+    void setBy(int start, int end) {
+        byStart = start;
+        byEnd = end;
+    }
+
+    void setFrom(int start, int end) {
+        fromStart = start;
+        fromEnd = end;
+    }
+
+    void setTo(int start, int end) {
+        toStart = start;
+        toEnd = end;
+    }
+
+    public String getInput() {
+        return input;
+    }
+
+    /**
+     * Returns the first word of the command, without copying the input if the command
+     * is a single word.
+     */
+    public String getVerb() {
+        return verbEnd == input.length() ? input : input.substring(0, verbEnd);
+    }
+
+    /**
+     * Returns whether the first word of the command is the given verb.
+     */
+    public boolean isVerb(String verb) {
+        return verbEnd == verb.length() && input.startsWith(verb);
+    }
+
+    /**
+     * Returns everything after the verb, trimmed.
+     */
+    public String getArguments() {
+        return input.substring(argumentStart, argumentEnd);
+    }
+
+    public int getArgumentStart() {
+        return argumentStart;
+    }
+
+    public int getArgumentEnd() {
+        return argumentEnd;
+    }
+
+    public boolean hasDeadlineDescription() {
+        return deadlineDescriptionStart >= 0;
+    }
+
+    /**
+     * Returns the text between the verb and /by, which is the description if the
+     * command adds a deadline, or null if the command has no /by.
+     */
+    public String getDeadlineDescription() {
+        return hasDeadlineDescription() ? input.substring(deadlineDescriptionStart, deadlineDescriptionEnd) : null;
+    }
+
+    public boolean hasEventDescription() {
+        return eventDescriptionStart >= 0;
+    }
+
+    /**
+     * Returns the text between the verb and /from, which is the description if the
+     * command adds an event, or null if the command has no /from.
+     */
+    public String getEventDescription() {
+        return hasEventDescription() ? input.substring(eventDescriptionStart, eventDescriptionEnd) : null;
+    }
+
+    public boolean hasBy() {
+        return byStart >= 0;
+    }
+
+    public int getByStart() {
+        return byStart;
+    }
+
+    public int getByEnd() {
+        return byEnd;
+    }
+
+    /**
+     * Returns the text after /by, or null if the command has no /by.
+     */
+    public String getBy() {
+        return hasBy() ? input.substring(byStart, byEnd) : null;
+    }
+
+    public boolean hasFrom() {
+        return fromStart >= 0;
+    }
+
+    public int getFromStart() {
+        return fromStart;
+    }
+
+    public int getFromEnd() {
+        return fromEnd;
+    }
+
+    /**
+     * Returns the text between /from and /to, or null if the command does not have
+     * /from followed by /to.
+     */
+    public String getFrom() {
+        return hasFrom() ? input.substring(fromStart, fromEnd) : null;
+    }
+
+    public boolean hasTo() {
+        return toStart >= 0;
+    }
+
+    public int getToStart() {
+        return toStart;
+    }
+
+    public int getToEnd() {
+        return toEnd;
+    }
+
+    /**
+     * Returns the text after /to, or null if the command has no /to.
+     */
+    public String getTo() {
+        return hasTo() ? input.substring(toStart, toEnd) : null;
+    }
+}
@@ -2,9 +2,6 @@ package pixel.parser;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 
 import pixel.exception.PixelException;
 
@@ -12,35 +9,25 @@ import pixel.exception.PixelException;
  * Collection of utility methods for parsing parameters from commands.
  */
 public class Parser {
-    private static final DateTimeFormatter INPUT_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-    private static final DateTimeFormatter INPUT_TIME_FORMATTER = DateTimeFormatter.ofPattern("HHmm");
-
-    /** Command prefix lengths */
-    private static final int TODO_PREFIX_LENGTH = 4;
-    private static final int MARK_PREFIX_LENGTH = 5;
-    private static final int UNMARK_PREFIX_LENGTH = 7;
-    private static final int DELETE_PREFIX_LENGTH = 6;
-    private static final int FIND_PREFIX_LENGTH = 4;
-    private static final int DEADLINE_PREFIX_LENGTH = 8;
-    private static final int EVENT_PREFIX_LENGTH = 5;
+    private static final String PAGE_KEYWORD = "page";
+    private static final String LIMIT_OPTION = "--limit";
 
     /**
-     * Parameter keyword lengths (includes a leading slash and trailing space)
+     * Returns the description from a todo command.
+     *
+     * @throws PixelException If the description is empty.
      */
-    private static final int BY_PREFIX_LENGTH = 4; // "/by "
-    private static final int FROM_PREFIX_LENGTH = 6; // "/from "
-    private static final int TO_PREFIX_LENGTH = 4; // "/to "
+    public static String parseTodoDescription(String input) throws PixelException {
+        return parseTodoDescription(Tokenizer.tokenize(input, new ParsedCommand()));
+    }
 
     /**
-     * Returns the description from a todo command.
+     * Returns the description from a tokenized todo command.
      *
      * @throws PixelException If the description is empty.
      */
-    public static String parseTodoDescription(String input) throws PixelException {
-        if (input.length() <= TODO_PREFIX_LENGTH) {
-            throw new PixelException("OOPS!!! The description of a todo cannot be empty.");
-        }
-        String description = input.substring(TODO_PREFIX_LENGTH).trim();
+    public static String parseTodoDescription(ParsedCommand command) throws PixelException {
+        String description = command.getArguments();
         if (description.isEmpty()) {
             throw new PixelException("OOPS!!! The description of a todo cannot be empty.");
         }
@@ -53,12 +40,19 @@ public class Parser {
      * @throws PixelException If the description is empty.
      */
     public static String parseDeadlineDescription(String input) throws PixelException {
-        String rest = input.substring(DEADLINE_PREFIX_LENGTH);
-        int byIndex = rest.indexOf("/by ");
-        if (byIndex == -1) {
+        return parseDeadlineDescription(Tokenizer.tokenize(input, new ParsedCommand()));
+    }
+
+    /**
+     * Returns the description from a tokenized deadline command.
+     *
+     * @throws PixelException If /by is missing or the description is empty.
+     */
+    public static String parseDeadlineDescription(ParsedCommand command) throws PixelException {
+        if (!command.hasDeadlineDescription()) {
             throw new PixelException("OOPS!!! A deadline must include /by.");
         }
-        String description = rest.substring(0, byIndex).trim();
+        String description = command.getDeadlineDescription();
         if (description.isEmpty()) {
             throw new PixelException("OOPS!!! The description of a deadline cannot be empty.");
         }
@@ -72,16 +66,23 @@ public class Parser {
      * @throws PixelException If the deadline is missing, empty, or has an invalid date format.
      */
     public static LocalDateTime parseDeadlineBy(String input) throws PixelException {
-        String rest = input.length() > DEADLINE_PREFIX_LENGTH ? input.substring(DEADLINE_PREFIX_LENGTH) : "";
-        int byIndex = rest.indexOf("/by ");
-        if (byIndex == -1) {
+        return parseDeadlineBy(Tokenizer.tokenize(input, new ParsedCommand()));
+    }
+
+    /**
+     * Returns the deadline from a tokenized deadline command.
+     *
+     * @return The deadline as a LocalDateTime.
+     * @throws PixelException If the deadline is missing, empty, or has an invalid date format.
+     */
+    public static LocalDateTime parseDeadlineBy(ParsedCommand command) throws PixelException {
+        if (!command.hasBy()) {
             throw new PixelException("OOPS!!! A deadline must include /by.");
         }
-        String by = rest.substring(byIndex + BY_PREFIX_LENGTH).trim();
-        if (by.isEmpty()) {
+        if (command.getByStart() == command.getByEnd()) {
             throw new PixelException("OOPS!!! The deadline time cannot be empty.");
         }
-        return parseDateTime(by);
+        return DateTimeCodec.parseInput(command.getInput(), command.getByStart(), command.getByEnd());
     }
 
     /**
@@ -92,22 +93,9 @@ public class Parser {
      * @throws PixelException If the date/time format is invalid.
      */
     public static LocalDateTime parseDateTime(String dateTimeStr) throws PixelException {
-        try {
-            String[] parts = dateTimeStr.split(" ");
-            LocalDate date = LocalDate.parse(parts[0], INPUT_DATE_FORMATTER);
-
-            LocalDateTime result;
-            if (parts.length > 1) {
-                LocalTime time = LocalTime.parse(parts[1], INPUT_TIME_FORMATTER);
-                result = LocalDateTime.of(date, time);
-            } else {
-                result = LocalDateTime.of(date, LocalTime.of(23, 59));
-            }
-            assert result != null : "parseDateTime should never return null";
-            return result;
-        } catch (DateTimeParseException e) {
-            throw new PixelException("OOPS!!! Invalid date format. Use yyyy-MM-dd or yyyy-MM-dd HHmm");
-        }
+        LocalDateTime result = DateTimeCodec.parseInput(dateTimeStr, 0, dateTimeStr.length());
+        assert result != null : "parseDateTime should never return null";
+        return result;
     }
 
     /**
@@ -116,12 +104,19 @@ public class Parser {
      * @throws PixelException If the description is empty.
      */
     public static String parseEventDescription(String input) throws PixelException {
-        String rest = input.length() > EVENT_PREFIX_LENGTH ? input.substring(EVENT_PREFIX_LENGTH) : "";
-        int fromIndex = rest.indexOf("/from ");
-        if (fromIndex == -1) {
+        return parseEventDescription(Tokenizer.tokenize(input, new ParsedCommand()));
+    }
+
+    /**
+     * Returns the description from a tokenized event command.
+     *
+     * @throws PixelException If /from is missing or the description is empty.
+     */
+    public static String parseEventDescription(ParsedCommand command) throws PixelException {
+        if (!command.hasEventDescription()) {
             throw new PixelException("OOPS!!! An event must include /from and /to.");
         }
-        String description = rest.substring(0, fromIndex).trim();
+        String description = command.getEventDescription();
         if (description.isEmpty()) {
             throw new PixelException("OOPS!!! The description of an event cannot be empty.");
         }
@@ -135,17 +130,23 @@ public class Parser {
      * @throws PixelException If this date/time is missing, empty, or has an invalid format.
      */
     public static LocalDateTime parseEventFrom(String input) throws PixelException {
-        String rest = input.length() > EVENT_PREFIX_LENGTH ? input.substring(EVENT_PREFIX_LENGTH) : "";
-        int fromIndex = rest.indexOf("/from ");
-        int toIndex = rest.indexOf("/to ");
-        if (fromIndex == -1 || toIndex == -1 || fromIndex > toIndex) {
+        return parseEventFrom(Tokenizer.tokenize(input, new ParsedCommand()));
+    }
+
+    /**
+     * Parses the start date/time from a tokenized event command.
+     *
+     * @return The date/time as a LocalDateTime.
+     * @throws PixelException If this date/time is missing, empty, or has an invalid format.
+     */
+    public static LocalDateTime parseEventFrom(ParsedCommand command) throws PixelException {
+        if (!command.hasFrom()) {
             throw new PixelException("OOPS!!! An event must include /from and /to.");
         }
-        String from = rest.substring(fromIndex + FROM_PREFIX_LENGTH, toIndex).trim();
-        if (from.isEmpty()) {
+        if (command.getFromStart() == command.getFromEnd()) {
             throw new PixelException("OOPS!!! The start time of an event cannot be empty.");
         }
-        return parseDateTime(from);
+        return DateTimeCodec.parseInput(command.getInput(), command.getFromStart(), command.getFromEnd());
     }
 
     /**
@@ -155,16 +156,23 @@ public class Parser {
      * @throws PixelException If this date/time is missing, empty, or has an invalid format.
      */
     public static LocalDateTime parseEventTo(String input) throws PixelException {
-        String rest = input.length() > EVENT_PREFIX_LENGTH ? input.substring(EVENT_PREFIX_LENGTH) : "";
-        int toIndex = rest.indexOf("/to ");
-        if (toIndex == -1) {
+        return parseEventTo(Tokenizer.tokenize(input, new ParsedCommand()));
+    }
+
+    /**
+     * Parses the end date/time from a tokenized event command.
+     *
+     * @return The date/time as a LocalDateTime.
+     * @throws PixelException If this date/time is missing, empty, or has an invalid format.
+     */
+    public static LocalDateTime parseEventTo(ParsedCommand command) throws PixelException {
+        if (!command.hasTo()) {
             throw new PixelException("OOPS!!! An event must include /from and /to.");
         }
-        String to = rest.substring(toIndex + TO_PREFIX_LENGTH).trim();
-        if (to.isEmpty()) {
+        if (command.getToStart() == command.getToEnd()) {
             throw new PixelException("OOPS!!! The end time of an event cannot be empty.");
         }
-        return parseDateTime(to);
+        return DateTimeCodec.parseInput(command.getInput(), command.getToStart(), command.getToEnd());
     }
 
     /**
@@ -174,7 +182,17 @@ public class Parser {
      * @throws PixelException If the index is missing or not a valid number.
      */
     public static int parseMarkIndex(String input) throws PixelException {
-        return parseIndex(input, MARK_PREFIX_LENGTH, "OOPS!!! Please provide a valid task number to mark.");
+        return parseMarkIndex(Tokenizer.tokenize(input, new ParsedCommand()));
+    }
+
+    /**
+     * Parses the task index from a tokenized mark command.
+     *
+     * @return The zero-based task index.
+     * @throws PixelException If the index is missing or not a valid number.
+     */
+    public static int parseMarkIndex(ParsedCommand command) throws PixelException {
+        return parseIndex(command, "OOPS!!! Please provide a valid task number to mark.");
     }
 
     /**
@@ -184,7 +202,17 @@ public class Parser {
      * @throws PixelException If the index is missing or not a valid number.
      */
     public static int parseUnmarkIndex(String input) throws PixelException {
-        return parseIndex(input, UNMARK_PREFIX_LENGTH, "OOPS!!! Please provide a valid task number to unmark.");
+        return parseUnmarkIndex(Tokenizer.tokenize(input, new ParsedCommand()));
+    }
+
+    /**
+     * Parses the task index from a tokenized unmark command.
+     *
+     * @return The zero-based task index.
+     * @throws PixelException If the index is missing or not a valid number.
+     */
+    public static int parseUnmarkIndex(ParsedCommand command) throws PixelException {
+        return parseIndex(command, "OOPS!!! Please provide a valid task number to unmark.");
     }
 
     /**
@@ -194,15 +222,22 @@ public class Parser {
      * @throws PixelException If the index is missing or not a valid number.
      */
     public static int parseDeleteIndex(String input) throws PixelException {
-        return parseIndex(input, DELETE_PREFIX_LENGTH, "OOPS!!! Please provide a valid task number to delete.");
+        return parseDeleteIndex(Tokenizer.tokenize(input, new ParsedCommand()));
     }
 
-    private static int parseIndex(String input, int prefixLength, String errorMessage) throws PixelException {
-        if (input.length() <= prefixLength) {
-            throw new PixelException(errorMessage);
-        }
+    /**
+     * Parses the task index from a tokenized delete command.
+     *
+     * @return The zero-based task index.
+     * @throws PixelException If the index is missing or not a valid number.
+     */
+    public static int parseDeleteIndex(ParsedCommand command) throws PixelException {
+        return parseIndex(command, "OOPS!!! Please provide a valid task number to delete.");
+    }
+
+    private static int parseIndex(ParsedCommand command, String errorMessage) throws PixelException {
         try {
-            return Integer.parseInt(input.substring(prefixLength).trim()) - 1;
+            return Integer.parseInt(command.getInput(), command.getArgumentStart(), command.getArgumentEnd(), 10) - 1;
         } catch (NumberFormatException e) {
             throw new PixelException(errorMessage);
         }
@@ -214,10 +249,18 @@ public class Parser {
      * @throws PixelException If the keyword is empty.
      */
     public static String parseFindKeyword(String input) throws PixelException {
-        if (input.length() <= FIND_PREFIX_LENGTH) {
-            throw new PixelException("OOPS!!! The search keyword cannot be empty.");
-        }
-        String keyword = input.substring(FIND_PREFIX_LENGTH).trim();
+        return parseFindKeyword(Tokenizer.tokenize(input, new ParsedCommand()));
+    }
+
+    /**
+     * Returns the keyword from a tokenized find command.
+     *
+     * @throws PixelException If the keyword is empty.
+     */
+    public static String parseFindKeyword(ParsedCommand command) throws PixelException {
+        String arguments = command.getArguments();
+        int limitStart = findLimitOption(arguments);
+        String keyword = limitStart < 0 ? arguments : arguments.substring(0, limitStart).trim();
         if (keyword.isEmpty()) {
             throw new PixelException("OOPS!!! The search keyword cannot be empty.");
         }
@@ -225,6 +268,176 @@ public class Parser {
         return keyword;
     }
 
+    /**
+     * Returns the number of matching tasks to show from a tokenized find command, which
+     * ends with {@code --limit N} to show at most N tasks.
+     *
+     * @return The limit, or 0 if the command has none
+     * @throws PixelException If the limit is not a positive number.
+     */
+    public static int parseFindLimit(ParsedCommand command) throws PixelException {
+        String arguments = command.getArguments();
+        int limitStart = findLimitOption(arguments);
+        if (limitStart < 0) {
+            return 0;
+        }
+        int limit = parsePositiveNumber(arguments.substring(limitStart + LIMIT_OPTION.length()).trim());
+        if (limit < 0) {
+            throw new PixelException("OOPS!!! The limit must be a positive number, e.g. find book --limit 50.");
+        }
+        return limit;
+    }
+
+    /**
+     * Returns the index of the --limit option in the arguments of a find command, or -1
+     * if the arguments do not have the option as a word of its own.
+     */
+    private static int findLimitOption(String arguments) {
+        int start = arguments.lastIndexOf(LIMIT_OPTION);
+        int end = start + LIMIT_OPTION.length();
+        if (start < 0 || (start > 0 && !Character.isWhitespace(arguments.charAt(start - 1)))
+                || (end < arguments.length() && !Character.isWhitespace(arguments.charAt(end)))) {
+            return -1;
+        }
+        return start;
+    }
+
+    /**
+     * Returns the page to show from a tokenized list command, which is the first page
+     * unless the command is {@code list page N}.
+     *
+     * @return The one-based page number
+     * @throws PixelException If the arguments are not a page and a positive number.
+     */
+    public static int parseListPage(ParsedCommand command) throws PixelException {
+        String arguments = command.getArguments();
+        if (arguments.isEmpty()) {
+            return 1;
+        }
+        if (arguments.startsWith(PAGE_KEYWORD)) {
+            int page = parsePositiveNumber(arguments.substring(PAGE_KEYWORD.length()).trim());
+            if (page > 0) {
+                return page;
+            }
+        }
+        throw new PixelException("OOPS!!! Please provide a valid page number, e.g. list page 2.");
+    }
+
+    /**
+     * Returns the value of a positive decimal number, or -1 if the text is not one.
+     */
+    private static int parsePositiveNumber(String text) {
+        try {
+            int value = Integer.parseInt(text);
+            return value > 0 ? value : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the date and time from a tokenized due command.
+     *
+     * @throws PixelException If the date is missing or has an invalid format.
+     */
+    public static LocalDateTime parseDueDate(ParsedCommand command) throws PixelException {
+        if (command.getArgumentStart() == command.getArgumentEnd()) {
+            throw new PixelException("OOPS!!! Please provide a date, e.g. due 2026-01-15 or due 2026-01-15 1800.");
+        }
+        return DateTimeCodec.parseInput(command.getInput(), command.getArgumentStart(), command.getArgumentEnd());
+    }
+
+    /**
+     * Returns the date from a tokenized on command. A time given with the date is ignored.
+     *
+     * @throws PixelException If the date is missing or has an invalid format.
+     */
+    public static LocalDate parseOnDate(ParsedCommand command) throws PixelException {
+        if (command.getArgumentStart() == command.getArgumentEnd()) {
+            throw new PixelException("OOPS!!! Please provide a date, e.g. on 2026-01-15.");
+        }
+        return DateTimeCodec.parseInput(command.getInput(), command.getArgumentStart(), command.getArgumentEnd())
+                .toLocalDate();
+    }
+
+    /**
+     * Returns the start of the range from a tokenized between command, which is the
+     * start of the day if only a date is given.
+     *
+     * @throws PixelException If the command does not hold two valid dates.
+     */
+    public static LocalDateTime parseBetweenFrom(ParsedCommand command) throws PixelException {
+        int[] words = splitBetweenRange(command);
+        LocalDateTime from = DateTimeCodec.parseInput(command.getInput(), words[0], words[1]);
+        return words[2] == 1 ? from.toLocalDate().atStartOfDay() : from;
+    }
+
+    /**
+     * Returns the end of the range from a tokenized between command, which is 23:59 if
+     * only a date is given.
+     *
+     * @throws PixelException If the command does not hold two valid dates.
+     */
+    public static LocalDateTime parseBetweenTo(ParsedCommand command) throws PixelException {
+        int[] words = splitBetweenRange(command);
+        return DateTimeCodec.parseInput(command.getInput(), words[3], words[4]);
+    }
+
+    /**
+     * Splits the arguments of a between command into two dates, each of which may be
+     * followed by a time.
+     *
+     * @return The start and end of the first date, the number of words in it, and the
+     *     start and end of the second date
+     */
+    private static int[] splitBetweenRange(ParsedCommand command) throws PixelException {
+        String input = command.getInput();
+        int[] starts = new int[4];
+        int[] ends = new int[4];
+        int count = 0;
+        int i = command.getArgumentStart();
+        while (i < command.getArgumentEnd()) {
+            if (Character.isWhitespace(input.charAt(i))) {
+                i++;
+                continue;
+            }
+            if (count == starts.length) {
+                count++;
+                break;
+            }
+            starts[count] = i;
+            while (i < command.getArgumentEnd() && !Character.isWhitespace(input.charAt(i))) {
+                i++;
+            }
+            ends[count++] = i;
+        }
+
+        int fromWords;
+        if (count == 2) {
+            fromWords = 1;
+        } else if (count == 3) {
+            // The middle word is the time of the first date if it looks like one
+            fromWords = isTime(input, starts[1], ends[1]) ? 2 : 1;
+        } else if (count == 4) {
+            fromWords = 2;
+        } else {
+            throw new PixelException("OOPS!!! Please provide two dates, e.g. between 2026-01-15 2026-01-20 1800.");
+        }
+        return new int[] {starts[0], ends[fromWords - 1], fromWords, starts[fromWords], ends[count - 1]};
+    }
+
+    private static boolean isTime(String input, int start, int end) {
+        if (end - start != 4) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (!Character.isDigit(input.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Checks if a task description matches the search criteria. Performs
      * case-insensitive substring matching. Multiple keywords are treated as AND
@@ -233,15 +446,9 @@ public class Parser {
      * @param description The task description to search in.
      * @param searchCriteria Keywords separated by spaces.
      * @return True if all keywords match (case-insensitive), false otherwise.
+     * @see SearchQuery
      */
     public static boolean matchesSearchCriteria(String description, String searchCriteria) {
-        String lowerDescription = description.toLowerCase();
-        String[] keywords = searchCriteria.toLowerCase().split("\\s+");
-        for (String keyword : keywords) {
-            if (!lowerDescription.contains(keyword)) {
-                return false;
-            }
-        }
-        return true;
+        return SearchQuery.compile(searchCriteria).matches(description);
     }
 }
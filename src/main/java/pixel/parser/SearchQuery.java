@@ -0,0 +1,115 @@
+package pixel.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A search for tasks whose descriptions contain every one of a set of keywords,
+ * ignoring case. The keywords are split and lowercased once when the query is
+ * compiled, so matching a description allocates nothing unless the description
+ * needs full Unicode case mapping.
+ */
+public class SearchQuery {
+    private final String[] keywords;
+    /** Whether lowercasing ASCII text in the default locale maps 'A'-'Z' to 'a'-'z'. */
+    private final boolean hasAsciiCaseMapping;
+
+    private SearchQuery(String[] keywords, boolean hasAsciiCaseMapping) {
+        this.keywords = keywords;
+        this.hasAsciiCaseMapping = hasAsciiCaseMapping;
+    }
+
+    /**
+     * Compiles the search criteria into a query.
+     *
+     * @param searchCriteria Keywords separated by whitespace
+     */
+    public static SearchQuery compile(String searchCriteria) {
+        String lowerCriteria = searchCriteria.toLowerCase();
+        ArrayList<String> keywords = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= lowerCriteria.length(); i++) {
+            boolean isSeparator = i == lowerCriteria.length() || isWhitespace(lowerCriteria.charAt(i));
+            if (isSeparator && start >= 0) {
+                keywords.add(lowerCriteria.substring(start, i));
+                start = -1;
+            } else if (!isSeparator && start < 0) {
+                start = i;
+            }
+        }
+
+        // These are the only languages whose lowercase mapping of ASCII letters is special
+        String language = Locale.getDefault().getLanguage();
+        boolean hasAsciiCaseMapping = !language.equals("tr") && !language.equals("az") && !language.equals("lt");
+        return new SearchQuery(keywords.toArray(new String[0]), hasAsciiCaseMapping);
+    }
+
+    /**
+     * Returns the lowercased keywords, none of which is empty or contains whitespace.
+     */
+    public List<String> getKeywords() {
+        return List.of(keywords);
+    }
+
+    /**
+     * Returns whether the description contains every keyword, ignoring case.
+     */
+    public boolean matches(String description) {
+        if (!hasAsciiCaseMapping || !isAscii(description)) {
+            String lowerDescription = description.toLowerCase();
+            for (String keyword : keywords) {
+                if (!lowerDescription.contains(keyword)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        for (String keyword : keywords) {
+            if (!containsIgnoringCase(description, keyword)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the ASCII text contains the lowercase keyword, ignoring the case
+     * of the text.
+     */
+    private static boolean containsIgnoringCase(String text, String keyword) {
+        int last = text.length() - keyword.length();
+        for (int start = 0; start <= last; start++) {
+            int i = 0;
+            while (i < keyword.length() && toLowerCase(text.charAt(start + i)) == keyword.charAt(i)) {
+                i++;
+            }
+            if (i == keyword.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static char toLowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the character is matched by {@code \s} in a regular expression,
+     * which is how keywords are separated.
+     */
+    public static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,36 @@
+package pixel.parser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import pixel.exception.PixelException;
+
+/**
+ * Handles a command whose response can be long, such as listing every task, by writing
+ * the response piece by piece instead of building it in memory first.
+ */
+@FunctionalInterface
+public interface StreamingCommandHandler extends CommandHandler {
+    /**
+     * Carries out the command and writes the response to show the user. The command is
+     * checked before anything is written, so nothing is written if it is invalid.
+     *
+     * @param command The tokenized command
+     * @param out The destination of the response
+     * @throws PixelException If the command is invalid or cannot be carried out
+     * @throws IOException If the response cannot be written
+     */
+    void handle(ParsedCommand command, Appendable out) throws PixelException, IOException;
+
+    @Override
+    default String handle(ParsedCommand command) throws PixelException {
+        StringBuilder response = new StringBuilder();
+        try {
+            handle(command, response);
+        } catch (IOException e) {
+            // A StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+        return response.toString();
+    }
+}
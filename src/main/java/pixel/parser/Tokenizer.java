@@ -0,0 +1,100 @@
+package pixel.parser;
+
+/**
+ * Splits a command into its verb and the spans of its parameters in a single pass
+ * over the input, without regular expressions or intermediate strings.
+ */
+public class Tokenizer {
+    private static final String BY_KEYWORD = "/by ";
+    private static final String FROM_KEYWORD = "/from ";
+    private static final String TO_KEYWORD = "/to ";
+
+    /**
+     * Tokenizes the input into the given command, overwriting its previous contents.
+     * The verb ends at the first whitespace character. A deadline's description ends
+     * at the first /by and an event's at the first /from; the /by and /to parameters
+     * run to the end of the input and the /from parameter runs up to /to. Both
+     * descriptions are found whatever the verb, as it may be a prefix of the command.
+     *
+     * @param input The command entered by the user
+     * @param command The command to fill in
+     * @return The given command
+     */
+    public static ParsedCommand tokenize(String input, ParsedCommand command) {
+        int length = input.length();
+        int verbEnd = -1;
+        int byIndex = -1;
+        int fromIndex = -1;
+        int toIndex = -1;
+        for (int i = 0; i < length; i++) {
+            char c = input.charAt(i);
+            if (verbEnd < 0) {
+                if (isWhitespace(c)) {
+                    verbEnd = i;
+                }
+            } else if (c == '/') {
+                if (byIndex < 0 && input.startsWith(BY_KEYWORD, i)) {
+                    byIndex = i;
+                } else if (fromIndex < 0 && input.startsWith(FROM_KEYWORD, i)) {
+                    fromIndex = i;
+                } else if (toIndex < 0 && input.startsWith(TO_KEYWORD, i)) {
+                    toIndex = i;
+                }
+            }
+        }
+        if (verbEnd < 0) {
+            verbEnd = length;
+        }
+
+        int argumentStart = trimStart(input, verbEnd, length);
+        command.reset(input, verbEnd, argumentStart, trimEnd(input, argumentStart, length));
+        if (byIndex >= 0) {
+            int start = trimStart(input, verbEnd, byIndex);
+            command.setDeadlineDescription(start, trimEnd(input, start, byIndex));
+            start = trimStart(input, byIndex + BY_KEYWORD.length(), length);
+            command.setBy(start, trimEnd(input, start, length));
+        }
+        if (fromIndex >= 0) {
+            int start = trimStart(input, verbEnd, fromIndex);
+            command.setEventDescription(start, trimEnd(input, start, fromIndex));
+        }
+        if (fromIndex >= 0 && toIndex > fromIndex) {
+            int start = trimStart(input, fromIndex + FROM_KEYWORD.length(), toIndex);
+            command.setFrom(start, trimEnd(input, start, toIndex));
+        }
+        if (toIndex >= 0) {
+            int start = trimStart(input, toIndex + TO_KEYWORD.length(), length);
+            command.setTo(start, trimEnd(input, start, length));
+        }
+        return command;
+    }
+
+    /**
+     * Returns whether the character is matched by the regular expression {@code \s}.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Returns the start of the span with leading characters removed as by {@link String#trim()}.
+     */
+    private static int trimStart(String input, int start, int end) {
+        int i = start;
+        while (i < end && input.charAt(i) <= ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the end of the span with trailing characters removed as by {@link String#trim()}.
+     */
+    private static int trimEnd(String input, int start, int end) {
+        int i = end;
+        while (i > start && input.charAt(i - 1) <= ' ') {
+            i--;
+        }
+        return i;
+    }
+}
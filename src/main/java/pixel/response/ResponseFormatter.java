@@ -1,24 +1,60 @@
 package pixel.response;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.List;
 
+import pixel.index.Conflict;
+import pixel.storage.RecoveryReport;
 import pixel.task.Task;
 
 /**
  * Provides methods to generate formatted response messages.
+ *
+ * <p>Messages that list many tasks are written to an {@link Appendable} one task at a
+ * time, so a long list can be streamed without building the whole message first.
  */
 public class ResponseFormatter {
-    private String formatTaskList(ArrayList<Task> tasks, String header) {
-        StringBuilder sb = new StringBuilder(header);
-        for (int i = 0; i < tasks.size(); i++) {
-            sb.append(i + 1).append(".").append(tasks.get(i));
-            if (i < tasks.size() - 1) {
-                sb.append("\n");
-            }
+    private static final String LIST_HEADER = "Here are the tasks in your list:\n";
+
+    private String formatTaskList(List<Task> tasks, String header) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            writeTaskList(sb, tasks, 1, header);
+        } catch (IOException e) {
+            // A StringBuilder never throws
+            throw new UncheckedIOException(e);
         }
         return sb.toString();
     }
 
+    private static void writeTaskList(Appendable out, List<Task> tasks, int firstNumber, String header)
+            throws IOException {
+        out.append(header);
+        int number = firstNumber;
+        for (Task task : tasks) {
+            if (number > firstNumber) {
+                out.append('\n');
+            }
+            out.append(Integer.toString(number++)).append('.').append(task.toString());
+        }
+    }
+
+    /**
+     * Returns the number of pages needed to show the given number of tasks, which is
+     * at least one.
+     *
+     * @param taskCount The number of tasks
+     * @param pageSize The number of tasks on a page, or 0 to show every task on one page
+     */
+    public static int countPages(int taskCount, int pageSize) {
+        if (pageSize == 0 || taskCount == 0) {
+            return 1;
+        }
+        return (taskCount - 1) / pageSize + 1;
+    }
+
     public String getFarewellMessage() {
         return "Bye. Hope to see you again soon!";
     }
@@ -27,11 +63,34 @@ public class ResponseFormatter {
         return "Got it. I've added this task:\n  " + task + "\nNow you have " + taskCount + " tasks in the list.";
     }
 
-    public String getListMessage(ArrayList<Task> tasks) {
+    /**
+     * Writes one page of the task list, numbering each task by its position in the
+     * whole list.
+     *
+     * @param out The destination of the message
+     * @param tasks The whole task list
+     * @param page The one-based page to write, which must exist
+     * @param pageSize The number of tasks on a page, or 0 to write every task on one page
+     * @throws IOException If the message cannot be written
+     */
+    public void writeListMessage(Appendable out, List<Task> tasks, int page, int pageSize) throws IOException {
         if (tasks.isEmpty()) {
-            return "Your task list is empty.";
+            out.append("Your task list is empty.");
+            return;
+        }
+        int pageCount = countPages(tasks.size(), pageSize);
+        if (pageCount == 1) {
+            writeTaskList(out, tasks, 1, LIST_HEADER);
+            return;
+        }
+        int from = (page - 1) * pageSize;
+        int to = Math.min(from + pageSize, tasks.size());
+        writeTaskList(out, tasks.subList(from, to), from + 1, LIST_HEADER);
+        out.append("\nShowing tasks " + (from + 1) + "-" + to + " of " + tasks.size() + " (page " + page + " of "
+                + pageCount + ").");
+        if (page < pageCount) {
+            out.append(" Type \"list page " + (page + 1) + "\" for more.");
         }
-        return formatTaskList(tasks, "Here are the tasks in your list:\n");
     }
 
     public String getTaskMarkedMessage(Task task) {
@@ -54,14 +113,89 @@ public class ResponseFormatter {
     }
 
     /**
-     * Returns a message for search results.
+     * Writes a message for search results.
      *
+     * @param out The destination of the message
      * @param tasks The list of matching tasks
+     * @param limit The most tasks to write, or 0 to write every matching task
+     * @throws IOException If the message cannot be written
      */
-    public String getSearchResultsMessage(ArrayList<Task> tasks) {
+    public void writeSearchResultsMessage(Appendable out, List<Task> tasks, int limit) throws IOException {
         if (tasks.isEmpty()) {
-            return "No matching tasks found.";
+            out.append("No matching tasks found.");
+            return;
+        }
+        List<Task> shown = limit == 0 || tasks.size() <= limit ? tasks : tasks.subList(0, limit);
+        writeTaskList(out, shown, 1, "Here are the matching tasks in your list:\n");
+        if (shown.size() < tasks.size()) {
+            out.append("\nShowing the first " + shown.size() + " of " + tasks.size() + " matching tasks.");
+        }
+    }
+
+    /**
+     * Returns a message listing the deadlines due by a given time.
+     *
+     * @param tasks The deadlines due, earliest first
+     */
+    public String getDueMessage(ArrayList<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return "Nothing is due by then.";
+        }
+        return formatTaskList(tasks, "Here are the deadlines due by then:\n");
+    }
+
+    /**
+     * Returns a message listing the deadlines and events in a time range.
+     *
+     * @param tasks The tasks in the range, in time order
+     */
+    public String getScheduleMessage(ArrayList<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return "No deadlines or events fall in that time.";
+        }
+        return formatTaskList(tasks, "Here are the deadlines and events in that time:\n");
+    }
+
+    /**
+     * Returns a warning listing the events that a newly added event overlaps.
+     *
+     * @param conflicts The overlapping events, ordered by their start
+     */
+    public String getEventConflictMessage(ArrayList<Task> conflicts) {
+        return formatTaskList(conflicts, "Heads up! This event overlaps with:\n");
+    }
+
+    /**
+     * Returns a message listing every pair of overlapping events.
+     *
+     * @param conflicts The pairs of overlapping events
+     */
+    public String getConflictsMessage(ArrayList<Conflict> conflicts) {
+        if (conflicts.isEmpty()) {
+            return "None of your events overlap.";
+        }
+        StringBuilder sb = new StringBuilder("Here are the events that overlap:");
+        for (int i = 0; i < conflicts.size(); i++) {
+            Conflict conflict = conflicts.get(i);
+            sb.append("\n").append(i + 1).append(".").append(conflict.getEarlier())
+                    .append("\n  overlaps ").append(conflict.getLater());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns a warning that the task file was corrupt and only partly loaded.
+     *
+     * @param report The report of the first corrupt record in the task file
+     */
+    public String getRecoveryMessage(RecoveryReport report) {
+        String message = "Warning: your task file is corrupt from line " + report.getLineNumber()
+                + ".\nI've recovered " + report.getSalvagedCount()
+                + " tasks from before that line and kept a copy of the file at " + report.getBackupPath() + ".";
+        if (report.getJournalBackupPath() == null) {
+            return message;
         }
-        return formatTaskList(tasks, "Here are the matching tasks in your list:\n");
+        return message + "\nChanges made since the file was last saved were not applied, as they may no longer "
+                + "match your tasks. I've kept them at " + report.getJournalBackupPath() + ".";
     }
 }
@@ -0,0 +1,231 @@
+package pixel.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import pixel.task.Deadline;
+import pixel.task.Event;
+import pixel.task.Task;
+import pixel.task.TaskSource;
+import pixel.task.Todo;
+
+/**
+ * Reads and writes the binary task file format, which is read through a memory
+ * mapping without any per-line parsing.
+ *
+ * <p>The file starts with a magic number and the number of tasks. Each task is a
+ * fixed-width header (type, status, two epoch-minute times and the description
+ * length) followed by the UTF-8 description. A Deadline stores its deadline in the
+ * first time and an Event its start and end; unused times are zero.
+ */
+class BinarySnapshot {
+    static final int MAGIC = 0x50584231; // "PXB1"
+    static final int FILE_HEADER_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 22;
+
+    static final byte TODO = 0;
+    static final byte DEADLINE = 1;
+    static final byte EVENT = 2;
+
+    /**
+     * Writes the tasks to the given file in the binary format.
+     *
+     * @param sync Whether to force the file to the storage device before returning
+     */
+    static void write(Path path, List<Task> tasks, boolean sync) throws IOException {
+        try (FileOutputStream file = new FileOutputStream(path.toFile());
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(MAGIC);
+            out.writeInt(tasks.size());
+            for (Task task : tasks) {
+                writeTask(out, task);
+            }
+            out.flush();
+            if (sync) {
+                file.getFD().sync();
+            }
+        }
+    }
+
+    private static void writeTask(DataOutputStream out, Task task) throws IOException {
+        long first = 0;
+        long second = 0;
+        byte type = TODO;
+        if (task instanceof Deadline) {
+            type = DEADLINE;
+            first = toEpochMinute(((Deadline) task).getBy());
+        } else if (task instanceof Event) {
+            type = EVENT;
+            first = toEpochMinute(((Event) task).getFrom());
+            second = toEpochMinute(((Event) task).getTo());
+        }
+
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        out.writeByte(type);
+        out.writeByte(task.getStatusIcon().equals("X") ? 1 : 0);
+        out.writeLong(first);
+        out.writeLong(second);
+        out.writeInt(description.length);
+        out.write(description);
+    }
+
+    /**
+     * Reads every task in the given binary file into the task list. Records with an
+     * unknown type are skipped; a truncated file yields the tasks before the cut.
+     *
+     * @param isLazy Whether to only read the type and status of each task and decode
+     *     its other fields from the mapped file on first access
+     * @throws IOException If the file cannot be read or is not in the binary format
+     */
+    static void read(Path path, ArrayList<Task> tasks, boolean isLazy) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Binary task file is larger than 2 GiB");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (size < FILE_HEADER_SIZE || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a binary task file: " + path);
+            }
+
+            int count = buffer.getInt();
+            tasks.ensureCapacity(tasks.size() + count);
+            if (isLazy) {
+                readLazily(buffer, count, tasks);
+                return;
+            }
+            try {
+                for (int i = 0; i < count; i++) {
+                    Task task = readTask(buffer);
+                    if (task != null) {
+                        tasks.add(task);
+                    }
+                }
+            } catch (BufferUnderflowException | NegativeArraySizeException e) {
+                // Truncated file: keep the tasks read so far
+            }
+        }
+    }
+
+    /**
+     * Creates a task for every record that decodes its fields from the buffer on first
+     * access, by walking the record headers without decoding anything.
+     */
+    private static void readLazily(MappedByteBuffer buffer, int count, ArrayList<Task> tasks) {
+        MappedTaskSource source = new MappedTaskSource(buffer);
+        int position = FILE_HEADER_SIZE;
+        int size = buffer.limit();
+        for (int i = 0; i < count && position + RECORD_HEADER_SIZE <= size; i++) {
+            int length = buffer.getInt(position + 18);
+            if (length < 0 || length > size - position - RECORD_HEADER_SIZE) {
+                // Truncated file: keep the tasks read so far
+                return;
+            }
+
+            Task task;
+            switch (buffer.get(position)) {
+            case TODO:
+                task = new Todo(source, position);
+                break;
+            case DEADLINE:
+                task = new Deadline(source, position);
+                break;
+            case EVENT:
+                task = new Event(source, position);
+                break;
+            default:
+                task = null;
+                break;
+            }
+
+            if (task != null) {
+                if (buffer.get(position + 1) == 1) {
+                    task.markAsDone();
+                }
+                tasks.add(task);
+            }
+            position += RECORD_HEADER_SIZE + length;
+        }
+    }
+
+    private static Task readTask(MappedByteBuffer buffer) {
+        byte type = buffer.get();
+        boolean isDone = buffer.get() == 1;
+        long first = buffer.getLong();
+        long second = buffer.getLong();
+        int length = buffer.getInt();
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        String description = new String(bytes, StandardCharsets.UTF_8);
+
+        Task task;
+        switch (type) {
+        case TODO:
+            task = new Todo(description);
+            break;
+        case DEADLINE:
+            task = new Deadline(description, fromEpochMinute(first));
+            break;
+        case EVENT:
+            task = new Event(description, fromEpochMinute(first), fromEpochMinute(second));
+            break;
+        default:
+            return null;
+        }
+
+        if (isDone) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    static long toEpochMinute(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    static LocalDateTime fromEpochMinute(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Decodes the fields of lazily loaded tasks from a mapped binary file. Positions
+     * are the offsets of the records, and only absolute reads are used, so tasks can
+     * be decoded from any thread.
+     */
+    private static class MappedTaskSource implements TaskSource {
+        private final MappedByteBuffer buffer;
+
+        MappedTaskSource(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public String readDescription(int position) {
+            byte[] bytes = new byte[buffer.getInt(position + 18)];
+            buffer.get(position + RECORD_HEADER_SIZE, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public LocalDateTime readFirstTime(int position) {
+            return fromEpochMinute(buffer.getLong(position + 2));
+        }
+
+        @Override
+        public LocalDateTime readSecondTime(int position) {
+            return fromEpochMinute(buffer.getLong(position + 10));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package pixel.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Adds and verifies the CRC32 checksum at the end of each line of a checked text
+ * task file. A checked line is the plain text record followed by " | " and the
+ * checksum of the record as eight lowercase hex digits, so readers of the plain
+ * text format still understand it.
+ */
+class Checksums {
+    /** First line of a checked text file. Plain text readers skip it as a malformed task. */
+    static final String HEADER = "# pixel tasks | crc32";
+    private static final String SEPARATOR = " | ";
+    private static final int HEX_LENGTH = 8;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Returns the record followed by its checksum.
+     */
+    static String append(String record) {
+        long checksum = checksum(record);
+        StringBuilder line = new StringBuilder(record.length() + SEPARATOR.length() + HEX_LENGTH);
+        line.append(record).append(SEPARATOR);
+        for (int shift = (HEX_LENGTH - 1) * 4; shift >= 0; shift -= 4) {
+            line.append(HEX_DIGITS[(int) (checksum >>> shift) & 0xf]);
+        }
+        return line.toString();
+    }
+
+    /**
+     * Returns the record in a checked line, or null if the checksum is missing or does
+     * not match the record.
+     */
+    static String verify(String line) {
+        int separatorIndex = line.length() - HEX_LENGTH - SEPARATOR.length();
+        if (separatorIndex < 0 || !line.startsWith(SEPARATOR, separatorIndex)) {
+            return null;
+        }
+
+        long expected = 0;
+        for (int i = line.length() - HEX_LENGTH; i < line.length(); i++) {
+            int digit = Character.digit(line.charAt(i), 16);
+            if (digit < 0) {
+                return null;
+            }
+            expected = (expected << 4) | digit;
+        }
+
+        String record = line.substring(0, separatorIndex);
+        return checksum(record) == expected ? record : null;
+    }
+
+    private static long checksum(String record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
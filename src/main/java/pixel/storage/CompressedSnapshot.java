@@ -0,0 +1,272 @@
+package pixel.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import pixel.task.Task;
+
+/**
+ * Reads and writes the compressed task file format, which stores the text format in
+ * independently deflated blocks so that the file can be streamed block by block and
+ * any single block can be decoded on its own.
+ *
+ * <p>The file starts with a magic number, followed by the blocks. Each block has a
+ * header (compressed length, uncompressed length and number of tasks) and holds the
+ * deflated text lines of up to {@link #TASKS_PER_BLOCK} tasks. An end marker follows
+ * the last block, then the index of blocks (the offset of each block and the index of
+ * its first task) and finally the offset of the index and the number of blocks.
+ * A file cut short loses its index but still yields the tasks in its complete blocks.
+ */
+class CompressedSnapshot {
+    static final int MAGIC = 0x50585a31; // "PXZ1"
+    static final int TASKS_PER_BLOCK = 1024;
+    private static final int MAX_BLOCK_BYTES = 64 * 1024;
+    private static final int BLOCK_HEADER_SIZE = 12;
+    private static final int END_MARKER = -1;
+    private static final int INDEX_ENTRY_SIZE = 12;
+    private static final int FOOTER_SIZE = 12;
+
+    /**
+     * Writes the tasks to the given file in the compressed format.
+     *
+     * @param sync Whether to force the file to the storage device before returning
+     */
+    static void write(Path path, List<Task> tasks, boolean sync) throws IOException {
+        ArrayList<Long> blockOffsets = new ArrayList<>();
+        ArrayList<Integer> blockFirstTasks = new ArrayList<>();
+        Deflater deflater = new Deflater();
+        try (FileOutputStream file = new FileOutputStream(path.toFile());
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(MAGIC);
+            long offset = Integer.BYTES;
+
+            ByteArrayOutputStream block = new ByteArrayOutputStream(MAX_BLOCK_BYTES);
+            byte[] compressed = new byte[MAX_BLOCK_BYTES];
+            int firstTask = 0;
+            for (int i = 0; i < tasks.size(); i++) {
+                block.write((Storage.formatTask(tasks.get(i)) + "\n").getBytes(StandardCharsets.UTF_8));
+                int taskCount = i + 1 - firstTask;
+                if (taskCount == TASKS_PER_BLOCK || block.size() >= MAX_BLOCK_BYTES || i == tasks.size() - 1) {
+                    blockOffsets.add(offset);
+                    blockFirstTasks.add(firstTask);
+                    compressed = deflate(deflater, block.toByteArray(), compressed);
+                    int compressedLength = deflater.getTotalOut();
+                    out.writeInt(compressedLength);
+                    out.writeInt(block.size());
+                    out.writeInt(taskCount);
+                    out.write(compressed, 0, compressedLength);
+                    offset += BLOCK_HEADER_SIZE + compressedLength;
+                    block.reset();
+                    firstTask = i + 1;
+                }
+            }
+
+            out.writeInt(END_MARKER);
+            long indexOffset = offset + Integer.BYTES;
+            for (int i = 0; i < blockOffsets.size(); i++) {
+                out.writeLong(blockOffsets.get(i));
+                out.writeInt(blockFirstTasks.get(i));
+            }
+            out.writeLong(indexOffset);
+            out.writeInt(blockOffsets.size());
+            out.flush();
+            if (sync) {
+                file.getFD().sync();
+            }
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Compresses the block with the reset deflater, growing the output buffer if needed.
+     *
+     * @return The buffer holding the {@code deflater.getTotalOut()} compressed bytes
+     */
+    private static byte[] deflate(Deflater deflater, byte[] block, byte[] buffer) {
+        byte[] output = buffer;
+        deflater.reset();
+        deflater.setInput(block);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == output.length) {
+                byte[] grown = new byte[output.length * 2];
+                System.arraycopy(output, 0, grown, 0, length);
+                output = grown;
+            }
+            length += deflater.deflate(output, length, output.length - length);
+        }
+        return output;
+    }
+
+    /**
+     * Reads every well-formed task in the given compressed file into the task list,
+     * decompressing one block at a time.
+     *
+     * @throws IOException If the file cannot be read or is not in the compressed format
+     */
+    static void read(Path path, ArrayList<Task> tasks) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            checkMagic(channel, path);
+            Inflater inflater = new Inflater();
+            try {
+                long offset = Integer.BYTES;
+                while (true) {
+                    long next = readBlock(channel, offset, inflater, tasks);
+                    if (next < 0) {
+                        return;
+                    }
+                    offset = next;
+                }
+            } finally {
+                inflater.end();
+            }
+        }
+    }
+
+    /**
+     * Reads the tasks in the given range of the task list, decompressing only the
+     * blocks that hold them.
+     *
+     * @param fromIndex The index of the first task to read
+     * @param count The maximum number of tasks to read
+     * @throws IOException If the file cannot be read or is not in the compressed format
+     */
+    static ArrayList<Task> readRange(Path path, int fromIndex, int count) throws IOException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            checkMagic(channel, path);
+            long indexOffset = -1;
+            int blockCount = -1;
+            if (channel.size() >= Integer.BYTES + FOOTER_SIZE) {
+                ByteBuffer footer = readFully(channel, channel.size() - FOOTER_SIZE, FOOTER_SIZE);
+                indexOffset = footer.getLong();
+                blockCount = footer.getInt();
+            }
+            if (blockCount < 0 || indexOffset < Integer.BYTES
+                    || indexOffset + (long) blockCount * INDEX_ENTRY_SIZE + FOOTER_SIZE != channel.size()) {
+                // A truncated file has lost its index, so stream the blocks it still has
+                ArrayList<Task> all = new ArrayList<>();
+                read(path, all);
+                int from = Math.min(Math.max(0, fromIndex), all.size());
+                tasks.addAll(all.subList(from, Math.min(all.size(), from + Math.max(0, count))));
+                return tasks;
+            }
+            ByteBuffer index = readFully(channel, indexOffset, blockCount * INDEX_ENTRY_SIZE);
+
+            // Binary search for the last block starting at or before the first task wanted
+            int low = 0;
+            int high = blockCount - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (index.getInt(mid * INDEX_ENTRY_SIZE + Long.BYTES) <= fromIndex) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+
+            Inflater inflater = new Inflater();
+            try {
+                ArrayList<Task> blockTasks = new ArrayList<>();
+                for (int block = low; block < blockCount && tasks.size() < count; block++) {
+                    int firstTask = index.getInt(block * INDEX_ENTRY_SIZE + Long.BYTES);
+                    blockTasks.clear();
+                    readBlock(channel, index.getLong(block * INDEX_ENTRY_SIZE), inflater, blockTasks);
+                    int start = Math.max(0, fromIndex - firstTask);
+                    for (int i = start; i < blockTasks.size() && tasks.size() < count; i++) {
+                        tasks.add(blockTasks.get(i));
+                    }
+                }
+            } finally {
+                inflater.end();
+            }
+        }
+        return tasks;
+    }
+
+    private static void checkMagic(FileChannel channel, Path path) throws IOException {
+        if (channel.size() < Integer.BYTES || readFully(channel, 0, Integer.BYTES).getInt() != MAGIC) {
+            throw new IOException("Not a compressed task file: " + path);
+        }
+    }
+
+    /**
+     * Decompresses the block at the given offset and adds its well-formed tasks to the list.
+     *
+     * @return The offset of the next block, or -1 at the end marker or a truncated block
+     */
+    private static long readBlock(FileChannel channel, long offset, Inflater inflater, ArrayList<Task> tasks)
+            throws IOException {
+        if (offset + BLOCK_HEADER_SIZE > channel.size()) {
+            return -1;
+        }
+        ByteBuffer header = readFully(channel, offset, BLOCK_HEADER_SIZE);
+        int compressedLength = header.getInt();
+        int uncompressedLength = header.getInt();
+        int taskCount = header.getInt();
+        if (compressedLength == END_MARKER || compressedLength < 0 || uncompressedLength < 0
+                || offset + BLOCK_HEADER_SIZE + compressedLength > channel.size()) {
+            // Truncated file: keep the tasks read so far
+            return -1;
+        }
+
+        ByteBuffer compressed = readFully(channel, offset + BLOCK_HEADER_SIZE, compressedLength);
+        byte[] text = new byte[uncompressedLength];
+        inflater.reset();
+        inflater.setInput(compressed);
+        try {
+            int length = 0;
+            while (length < uncompressedLength && !inflater.finished()) {
+                int inflated = inflater.inflate(text, length, uncompressedLength - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != uncompressedLength) {
+                throw new IOException("Corrupt block in compressed task file at offset " + offset);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt block in compressed task file at offset " + offset, e);
+        }
+
+        tasks.ensureCapacity(tasks.size() + Math.max(0, taskCount));
+        int lineStart = 0;
+        for (int i = 0; i < text.length; i++) {
+            if (text[i] == '\n') {
+                Task task = Storage.parseTask(new String(text, lineStart, i - lineStart, StandardCharsets.UTF_8));
+                if (task != null) {
+                    tasks.add(task);
+                }
+                lineStart = i + 1;
+            }
+        }
+        return offset + BLOCK_HEADER_SIZE + compressedLength;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of compressed task file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,99 @@
+package pixel.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import pixel.exception.PixelException;
+import pixel.task.Task;
+
+/**
+ * Wraps another storage and only notes that the task list changed when a mutation
+ * is recorded, so that a run of commands is persisted with a single save of the
+ * whole list by {@link #commit(List)}.
+ */
+public class DeferredStorage implements TaskStorage {
+    private final TaskStorage storage;
+    private boolean isDirty = false;
+
+    /**
+     * Creates a deferred storage that commits to the given storage.
+     *
+     * @param storage The storage the task list is saved to on commit
+     */
+    public DeferredStorage(TaskStorage storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * Returns whether a mutation was recorded since the last commit.
+     */
+    public boolean isDirty() {
+        return isDirty;
+    }
+
+    /**
+     * Saves the task list to the wrapped storage if a mutation was recorded since the
+     * last commit, and waits until it is written.
+     *
+     * @param tasks The current task list
+     * @throws PixelException If the tasks cannot be written
+     */
+    public void commit(List<Task> tasks) throws PixelException {
+        if (!isDirty) {
+            return;
+        }
+        storage.save(tasks);
+        storage.flush();
+        isDirty = false;
+    }
+
+    @Override
+    public ArrayList<Task> load() throws PixelException {
+        isDirty = false;
+        return storage.load();
+    }
+
+    @Override
+    public void save(List<Task> tasks) throws PixelException {
+        isDirty = true;
+    }
+
+    @Override
+    public void recordAdd(List<Task> tasks, Task task) {
+        isDirty = true;
+    }
+
+    @Override
+    public void recordMark(List<Task> tasks, int index) {
+        isDirty = true;
+    }
+
+    @Override
+    public void recordUnmark(List<Task> tasks, int index) {
+        isDirty = true;
+    }
+
+    @Override
+    public void recordDelete(List<Task> tasks, int index) {
+        isDirty = true;
+    }
+
+    /**
+     * Mutations are only written by {@link #commit(List)}, so there is nothing to flush.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Leaves the wrapped storage open, as it outlives the run of deferred commands.
+     */
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public RecoveryReport getRecoveryReport() {
+        return storage.getRecoveryReport();
+    }
+}
@@ -0,0 +1,13 @@
+package pixel.storage;
+
+/**
+ * Enumeration representing when journal records are forced to the storage device.
+ */
+public enum Durability {
+    /** Records are handed to the operating system but never forced to disk. */
+    NONE,
+    /** Records are forced to disk once per batch of coalesced commands. */
+    PER_BATCH,
+    /** Records are forced to disk after every command. */
+    PER_COMMAND
+}
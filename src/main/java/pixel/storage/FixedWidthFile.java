@@ -0,0 +1,385 @@
+package pixel.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import pixel.task.Deadline;
+import pixel.task.Event;
+import pixel.task.Task;
+import pixel.task.Todo;
+
+/**
+ * Task file made of fixed-width records, so that the status of any task can be
+ * changed by writing a single byte in place.
+ *
+ * <p>The record file starts with a magic number and the generation of its heap file,
+ * followed by one 32-byte record per task: type, status, two epoch-minute times and
+ * the offset and length of the task's UTF-8 description in the heap file. The status
+ * byte of the record in slot {@code s} is at {@code HEADER_SIZE + s * RECORD_SIZE + 1}.
+ *
+ * <p>Deleting a task overwrites its status with a tombstone. Tombstoned records are
+ * reclaimed by {@link #rewrite(List)}, which writes a new heap file under the next
+ * generation and then atomically replaces the record file, so a crash leaves either
+ * the old or the new pair of files intact.
+ */
+class FixedWidthFile {
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_SIZE = 32;
+    private static final int MAGIC = 0x50584631; // "PXF1"
+    private static final int STATUS_OFFSET = 1;
+    private static final byte NOT_DONE = 0;
+    private static final byte DONE = 1;
+    private static final byte TOMBSTONE = 2;
+    private static final String HEAP_SUFFIX = ".heap.";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path path;
+    private final Durability durability;
+    private FileChannel records;
+    private FileChannel heap;
+    private int generation;
+    private int slotCount;
+    private long heapSize;
+    /**
+     * Fenwick tree over the slots, indexed from 1, counting the live records in each
+     * range. Live records are in list order, so the task at index {@code i} is in the
+     * slot of the {@code (i + 1)}th live record, which the tree finds in O(log n).
+     */
+    private int[] liveSlots = new int[17];
+    private int liveCount;
+    private int tombstoneCount;
+
+    /**
+     * Creates a fixed-width task file at the given path.
+     *
+     * @param path The path to the record file
+     * @param durability Whether writes are forced to the storage device
+     */
+    FixedWidthFile(Path path, Durability durability) {
+        this.path = path;
+        this.durability = durability;
+    }
+
+    int getTombstoneCount() {
+        return tombstoneCount;
+    }
+
+    int getLiveCount() {
+        return liveCount;
+    }
+
+    /**
+     * Reads every live task in the file into the task list, in order.
+     */
+    void load(ArrayList<Task> tasks) throws IOException {
+        close();
+        clearSlots();
+        tombstoneCount = 0;
+        if (!Files.exists(path)) {
+            create();
+            return;
+        }
+
+        records = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (records.read(header, 0) < HEADER_SIZE || header.getInt(0) != MAGIC) {
+            close();
+            throw new IOException("Not a fixed-width task file: " + path);
+        }
+        openHeap(header.getInt(4));
+        if (heapSize > Integer.MAX_VALUE) {
+            close();
+            throw new IOException("Task description file is larger than 2 GiB");
+        }
+
+        if (records.size() > Integer.MAX_VALUE) {
+            close();
+            throw new IOException("Task file is larger than 2 GiB");
+        }
+
+        // A record cut short by a crash while appending is dropped
+        slotCount = (int) ((records.size() - HEADER_SIZE) / RECORD_SIZE);
+        records.truncate(HEADER_SIZE + (long) slotCount * RECORD_SIZE);
+
+        ByteBuffer recordBuffer = records.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE,
+                (long) slotCount * RECORD_SIZE);
+        ByteBuffer heapBuffer = heap.map(FileChannel.MapMode.READ_ONLY, 0, heapSize);
+        tasks.ensureCapacity(tasks.size() + slotCount);
+        for (int slot = 0; slot < slotCount; slot++) {
+            Task task = readTask(recordBuffer, slot * RECORD_SIZE, heapBuffer);
+            if (task == null) {
+                tombstoneCount++;
+                continue;
+            }
+            tasks.add(task);
+            addSlot(slot);
+        }
+    }
+
+    private Task readTask(ByteBuffer recordBuffer, int offset, ByteBuffer heapBuffer) {
+        byte type = recordBuffer.get(offset);
+        byte status = recordBuffer.get(offset + STATUS_OFFSET);
+        long first = recordBuffer.getLong(offset + 2);
+        long second = recordBuffer.getLong(offset + 10);
+        long descriptionOffset = recordBuffer.getLong(offset + 18);
+        int descriptionLength = recordBuffer.getInt(offset + 26);
+        if (status == TOMBSTONE || descriptionOffset < 0 || descriptionLength < 0
+                || descriptionOffset + descriptionLength > heapSize) {
+            return null;
+        }
+
+        byte[] bytes = new byte[descriptionLength];
+        heapBuffer.get((int) descriptionOffset, bytes);
+        String description = new String(bytes, StandardCharsets.UTF_8);
+
+        Task task;
+        switch (type) {
+        case BinarySnapshot.TODO:
+            task = new Todo(description);
+            break;
+        case BinarySnapshot.DEADLINE:
+            task = new Deadline(description, BinarySnapshot.fromEpochMinute(first));
+            break;
+        case BinarySnapshot.EVENT:
+            task = new Event(description, BinarySnapshot.fromEpochMinute(first),
+                    BinarySnapshot.fromEpochMinute(second));
+            break;
+        default:
+            return null;
+        }
+
+        if (status == DONE) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    /**
+     * Appends a task to the end of the file.
+     */
+    void append(Task task) throws IOException {
+        ensureOpen();
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        writeFully(heap, ByteBuffer.wrap(description), heapSize);
+
+        ByteBuffer record = encode(task, heapSize, description.length);
+        writeFully(records, record, HEADER_SIZE + (long) slotCount * RECORD_SIZE);
+        heapSize += description.length;
+        addSlot(slotCount);
+        slotCount++;
+        force();
+    }
+
+    /**
+     * Overwrites the status byte of the task at the given index.
+     */
+    void writeStatus(int index, boolean isDone) throws IOException {
+        writeStatusByte(index, isDone ? DONE : NOT_DONE);
+    }
+
+    /**
+     * Replaces the status of the task at the given index with a tombstone and removes
+     * it from the list of live tasks, in O(log n).
+     */
+    void delete(int index) throws IOException {
+        writeStatusByte(index, TOMBSTONE);
+        int slot = getSlot(index);
+        for (int node = slot + 1; node < liveSlots.length; node += node & -node) {
+            liveSlots[node]--;
+        }
+        liveCount--;
+        tombstoneCount++;
+    }
+
+    private void writeStatusByte(int index, byte status) throws IOException {
+        ensureOpen();
+        if (index < 0 || index >= liveCount) {
+            throw new IOException("Task " + (index + 1) + " is not in the task file");
+        }
+        long position = HEADER_SIZE + (long) getSlot(index) * RECORD_SIZE + STATUS_OFFSET;
+        writeFully(records, ByteBuffer.wrap(new byte[] {status}), position);
+        force();
+    }
+
+    /**
+     * Replaces the contents of the file with the given tasks, reclaiming every
+     * tombstoned record and every unused byte of the heap file.
+     */
+    void rewrite(List<Task> tasks) throws IOException {
+        int nextGeneration = generation + 1;
+        Path tempPath = path.resolveSibling(path.getFileName() + TEMP_SUFFIX);
+        close();
+
+        long newHeapSize = 0;
+        try (FileChannel newHeap = FileChannel.open(heapPath(nextGeneration), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                FileChannel newRecords = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(newRecords, header(nextGeneration), 0);
+            long position = HEADER_SIZE;
+            for (Task task : tasks) {
+                byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+                writeFully(newHeap, ByteBuffer.wrap(description), newHeapSize);
+                writeFully(newRecords, encode(task, newHeapSize, description.length), position);
+                newHeapSize += description.length;
+                position += RECORD_SIZE;
+            }
+            newHeap.force(false);
+            newRecords.force(false);
+        }
+        Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        records = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        openHeap(nextGeneration);
+        slotCount = tasks.size();
+        clearSlots();
+        tombstoneCount = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            addSlot(slot);
+        }
+    }
+
+    private void openHeap(int heapGeneration) throws IOException {
+        generation = heapGeneration;
+        heap = FileChannel.open(heapPath(generation), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        heapSize = heap.size();
+        deleteStaleHeaps();
+    }
+
+    private static ByteBuffer encode(Task task, long descriptionOffset, int descriptionLength) {
+        long first = 0;
+        long second = 0;
+        byte type = BinarySnapshot.TODO;
+        if (task instanceof Deadline) {
+            type = BinarySnapshot.DEADLINE;
+            first = BinarySnapshot.toEpochMinute(((Deadline) task).getBy());
+        } else if (task instanceof Event) {
+            type = BinarySnapshot.EVENT;
+            first = BinarySnapshot.toEpochMinute(((Event) task).getFrom());
+            second = BinarySnapshot.toEpochMinute(((Event) task).getTo());
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.put(type);
+        record.put(task.getStatusIcon().equals("X") ? DONE : NOT_DONE);
+        record.putLong(first);
+        record.putLong(second);
+        record.putLong(descriptionOffset);
+        record.putInt(descriptionLength);
+        record.clear();
+        return record;
+    }
+
+    private static ByteBuffer header(int generation) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(generation);
+        header.clear();
+        return header;
+    }
+
+    private void create() throws IOException {
+        generation = 0;
+        rewrite(new ArrayList<>());
+    }
+
+    private void ensureOpen() throws IOException {
+        if (records == null) {
+            load(new ArrayList<>());
+        }
+    }
+
+    private void clearSlots() {
+        liveSlots = new int[17];
+        liveCount = 0;
+    }
+
+    /**
+     * Marks the given slot, which follows every live slot, as live.
+     */
+    private void addSlot(int slot) {
+        while (slot >= liveSlots.length - 1) {
+            // The new slots are empty, so the only new node with a count is the one covering every slot
+            int capacity = liveSlots.length - 1;
+            liveSlots = Arrays.copyOf(liveSlots, capacity * 2 + 1);
+            liveSlots[capacity * 2] = liveCount;
+        }
+        for (int node = slot + 1; node < liveSlots.length; node += node & -node) {
+            liveSlots[node]++;
+        }
+        liveCount++;
+    }
+
+    /**
+     * Returns the slot of the task at the given index, which must be live.
+     */
+    private int getSlot(int index) {
+        // Finds the longest prefix of slots with at most index live records; the task is in the slot after it
+        int node = 0;
+        int remaining = index;
+        for (int step = liveSlots.length - 1; step > 0; step >>= 1) {
+            if (node + step < liveSlots.length && liveSlots[node + step] <= remaining) {
+                node += step;
+                remaining -= liveSlots[node];
+            }
+        }
+        return node;
+    }
+
+    private void force() throws IOException {
+        if (durability != Durability.NONE) {
+            heap.force(false);
+            records.force(false);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+
+    private Path heapPath(int heapGeneration) {
+        return path.resolveSibling(path.getFileName() + HEAP_SUFFIX + heapGeneration);
+    }
+
+    /**
+     * Deletes heap files left behind by a rewrite that was interrupted or completed.
+     */
+    private void deleteStaleHeaps() throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        String prefix = path.getFileName() + HEAP_SUFFIX;
+        String current = prefix + generation;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(prefix) && !name.equals(current)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    void close() throws IOException {
+        if (records != null) {
+            records.close();
+            records = null;
+        }
+        if (heap != null) {
+            heap.close();
+            heap = null;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package pixel.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.function.Function;
+
+import pixel.task.Task;
+
+/**
+ * Append-only log of task list mutations. Each mutation is one line of the form
+ * OPERATION | ARGUMENT, where the argument is either a task in the storage
+ * format or a zero-based task index.
+ */
+class Journal {
+    private static final String SEPARATOR = " | ";
+    private static final String ADD = "ADD";
+    private static final String MARK = "MARK";
+    private static final String UNMARK = "UNMARK";
+    private static final String DELETE = "DELETE";
+
+    private final Path path;
+    private FileOutputStream output;
+    private BufferedWriter writer;
+    private int recordCount = 0;
+    private long size = 0;
+
+    /**
+     * Creates a journal backed by the specified file.
+     *
+     * @param path The path to the journal file
+     */
+    Journal(Path path) {
+        this.path = path;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Returns the approximate size of the journal in bytes.
+     */
+    long getSize() {
+        return size;
+    }
+
+    static String addRecord(String formattedTask) {
+        return ADD + SEPARATOR + formattedTask;
+    }
+
+    static String markRecord(int index) {
+        return MARK + SEPARATOR + index;
+    }
+
+    static String unmarkRecord(int index) {
+        return UNMARK + SEPARATOR + index;
+    }
+
+    static String deleteRecord(int index) {
+        return DELETE + SEPARATOR + index;
+    }
+
+    /**
+     * Appends a record to the journal and flushes it to the operating system.
+     */
+    void append(String record) throws IOException {
+        write(record);
+        flush();
+    }
+
+    /**
+     * Appends a record to the journal's buffer without flushing it.
+     */
+    void write(String record) throws IOException {
+        if (writer == null) {
+            output = new FileOutputStream(path.toFile(), true);
+            writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        }
+        writer.write(record);
+        writer.write(System.lineSeparator());
+        recordCount++;
+        size += record.length() + System.lineSeparator().length();
+    }
+
+    void flush() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Flushes the journal and forces it to the storage device.
+     */
+    void sync() throws IOException {
+        if (writer != null) {
+            writer.flush();
+            output.getFD().sync();
+        }
+    }
+
+    /**
+     * Applies every record in the journal to the given task list, in order.
+     * Records that are malformed or refer to an index outside the list are skipped.
+     *
+     * @param tasks The task list loaded from the base snapshot
+     * @param parser Converts a task in the storage format into a Task, or null if it is malformed
+     */
+    void replay(ArrayList<Task> tasks, Function<String, Task> parser) throws IOException {
+        recordCount = replay(path, tasks, parser);
+        size = Files.exists(path) ? Files.size(path) : 0;
+    }
+
+    /**
+     * Applies every record in the journal file at the given path to the task list.
+     *
+     * @return The number of records read
+     */
+    static int replay(Path path, ArrayList<Task> tasks, Function<String, Task> parser) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                apply(tasks, line, parser);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void apply(ArrayList<Task> tasks, String record, Function<String, Task> parser) {
+        int separatorIndex = record.indexOf(SEPARATOR);
+        if (separatorIndex == -1) {
+            return;
+        }
+        String operation = record.substring(0, separatorIndex);
+        String argument = record.substring(separatorIndex + SEPARATOR.length());
+
+        if (operation.equals(ADD)) {
+            Task task = parser.apply(argument);
+            if (task != null) {
+                tasks.add(task);
+            }
+            return;
+        }
+
+        int index;
+        try {
+            index = Integer.parseInt(argument);
+        } catch (NumberFormatException e) {
+            return;
+        }
+        if (index < 0 || index >= tasks.size()) {
+            return;
+        }
+
+        switch (operation) {
+        case MARK:
+            tasks.get(index).markAsDone();
+            break;
+        case UNMARK:
+            tasks.get(index).markAsNotDone();
+            break;
+        case DELETE:
+            tasks.remove(index);
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Discards every record in the journal.
+     */
+    void clear() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+        recordCount = 0;
+        size = 0;
+    }
+
+    /**
+     * Moves every record in the journal to the target file and starts a new, empty journal.
+     *
+     * @param target The file the current records are moved to
+     */
+    void rotate(Path target) throws IOException {
+        close();
+        if (Files.exists(path)) {
+            Files.move(path, target, StandardCopyOption.ATOMIC_MOVE);
+        }
+        recordCount = 0;
+        size = 0;
+    }
+
+    void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+            output = null;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package pixel.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import pixel.task.Task;
+
+/**
+ * Folds the journal into a fresh snapshot on a background thread once the journal
+ * grows past a size or record-count threshold.
+ *
+ * <p>Compaction moves the journal aside, so new mutations keep being appended to an
+ * empty journal while the old records are folded in. Every step is recoverable:
+ * the new snapshot is written to a temporary file, synced and renamed to a
+ * "compacted" file before the moved journal is deleted, and {@link #recover()}
+ * finishes or discards an interrupted compaction on the next load.
+ */
+class JournalCompactor {
+    private static final int MAX_RECORDS = 10_000;
+    private static final long MAX_BYTES = 1024 * 1024;
+    private static final String COMPACTING_SUFFIX = ".compacting";
+    private static final String COMPACTED_SUFFIX = ".compacted";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path snapshotPath;
+    private final Path compactingPath;
+    private final Path compactedPath;
+    private final Path tempPath;
+    private final SnapshotFormat format;
+    private final AtomicBoolean isRunning = new AtomicBoolean(false);
+    private ExecutorService executor;
+    private volatile IOException lastError;
+
+    /**
+     * Creates a compactor for the given snapshot and journal files.
+     *
+     * @param snapshotPath The path to the task file
+     * @param journalPath The path to the journal appended to by mutations
+     * @param format The format of the task file
+     */
+    JournalCompactor(Path snapshotPath, Path journalPath, SnapshotFormat format) {
+        this.snapshotPath = snapshotPath;
+        this.format = format;
+        this.compactingPath = journalPath.resolveSibling(journalPath.getFileName() + COMPACTING_SUFFIX);
+        this.compactedPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + COMPACTED_SUFFIX);
+        this.tempPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + TEMP_SUFFIX);
+    }
+
+    Path getCompactingPath() {
+        return compactingPath;
+    }
+
+    boolean isDue(Journal journal) {
+        return journal.getRecordCount() >= MAX_RECORDS || journal.getSize() >= MAX_BYTES;
+    }
+
+    /**
+     * Starts compacting the journal in the background unless a compaction is already
+     * running. Returns immediately.
+     *
+     * @param journal The journal to fold into the snapshot
+     */
+    void start(Journal journal) throws IOException {
+        if (!isRunning.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            // A previous compaction that failed leaves its records in place; retry it first
+            if (!Files.exists(compactingPath)) {
+                journal.rotate(compactingPath);
+            }
+            getExecutor().execute(this::compact);
+        } catch (IOException | RuntimeException e) {
+            isRunning.set(false);
+            throw e;
+        }
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "pixel-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    private void compact() {
+        try {
+            ArrayList<Task> tasks = new ArrayList<>();
+            Storage.readSnapshot(snapshotPath, format, tasks, false);
+            Journal.replay(compactingPath, tasks, Storage::parseTask);
+
+            Storage.writeSnapshot(tempPath, format, tasks, true);
+            Files.move(tempPath, compactedPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            Files.delete(compactingPath);
+            Files.move(compactedPath, snapshotPath, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            lastError = null;
+        } catch (IOException e) {
+            lastError = e;
+        } finally {
+            isRunning.set(false);
+        }
+    }
+
+    /**
+     * Completes or rolls back a compaction that was interrupted by a crash. After this
+     * returns, the snapshot followed by the moved journal (if any) and then the
+     * current journal describe the task list.
+     */
+    void recover() throws IOException {
+        Files.deleteIfExists(tempPath);
+        if (Files.exists(compactedPath)) {
+            // The compacted snapshot is complete and already contains the moved journal
+            Files.deleteIfExists(compactingPath);
+            Files.move(compactedPath, snapshotPath, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Waits for a running compaction to finish.
+     *
+     * @throws IOException If the last compaction failed
+     */
+    void awaitIdle() throws IOException {
+        ExecutorService current;
+        synchronized (this) {
+            current = executor;
+        }
+        if (current != null) {
+            try {
+                current.submit(() -> { }).get();
+            } catch (Exception e) {
+                throw new IOException("Compaction was interrupted", e);
+            }
+        }
+        if (lastError != null) {
+            throw lastError;
+        }
+    }
+
+    /**
+     * Waits for a running compaction to finish and stops the background thread.
+     */
+    void shutdown() throws IOException {
+        ExecutorService current;
+        synchronized (this) {
+            current = executor;
+            executor = null;
+        }
+        if (current == null) {
+            return;
+        }
+        current.shutdown();
+        try {
+            current.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (lastError != null) {
+            throw lastError;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package pixel.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import pixel.task.Task;
+
+/**
+ * Loads a task file in the text format by splitting it into byte ranges that end
+ * on line boundaries and parsing the ranges in parallel on the common ForkJoin
+ * pool. Malformed lines are skipped, as in the sequential loader.
+ *
+ * <p>Ranges are split after newline bytes, which is safe for UTF-8 and the other
+ * ASCII-compatible charsets the platform may use for the task file.
+ */
+class ParallelTextLoader {
+    /** Files smaller than this are parsed sequentially, as splitting would not pay off. */
+    static final long MIN_PARALLEL_SIZE = 1024 * 1024;
+    private static final long MIN_CHUNK_SIZE = 256 * 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int BOUNDARY_SCAN_SIZE = 4096;
+
+    /**
+     * Reads every well-formed task in the given file into the task list, in file order.
+     * If the file is a checked text file, only the tasks before the first record whose
+     * checksum does not match are read.
+     *
+     * @return The one-based line number of the first corrupt record, or 0 if there is none
+     */
+    static int read(Path path, ArrayList<Task> tasks) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] boundaries = findBoundaries(channel);
+            boolean isChecked = hasChecksumHeader(channel);
+
+            List<ChunkParser> chunks = new ArrayList<>();
+            for (int i = 0; i + 1 < boundaries.length; i++) {
+                boolean isHeaderChunk = isChecked && i == 0;
+                chunks.add(new ChunkParser(channel, boundaries[i], boundaries[i + 1], isChecked, isHeaderChunk));
+            }
+
+            try {
+                ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        invokeAll(chunks);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            // Each chunk stops at its first corrupt record, so only the valid prefix is kept
+            int linesBefore = 0;
+            for (ChunkParser chunk : chunks) {
+                tasks.addAll(chunk.getRawResult());
+                if (chunk.corruptLine > 0) {
+                    return linesBefore + chunk.corruptLine;
+                }
+                linesBefore += chunk.lineCount;
+            }
+            return 0;
+        }
+    }
+
+    private static boolean hasChecksumHeader(FileChannel channel) throws IOException {
+        byte[] header = Checksums.HEADER.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer buffer = ByteBuffer.allocate(header.length + 1);
+        channel.read(buffer, 0);
+        byte next = buffer.get(header.length);
+        return Arrays.equals(buffer.array(), 0, header.length, header, 0, header.length)
+                && (next == '\n' || next == '\r');
+    }
+
+    /**
+     * Splits the file into roughly equal byte ranges, moving each split point to just
+     * after the next newline so that no line spans two ranges.
+     *
+     * @return The start offset of every range followed by the file size
+     */
+    private static long[] findBoundaries(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int threads = ForkJoinPool.getCommonPoolParallelism();
+        long chunkCount = Math.max(1, Math.min((long) threads * CHUNKS_PER_THREAD, size / MIN_CHUNK_SIZE));
+
+        ArrayList<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        for (long i = 1; i < chunkCount; i++) {
+            long boundary = nextLineStart(channel, i * size / chunkCount);
+            if (boundary > boundaries.get(boundaries.size() - 1) && boundary < size) {
+                boundaries.add(boundary);
+            }
+        }
+        boundaries.add(size);
+
+        return boundaries.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long nextLineStart(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+        long offset = position;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+    }
+
+    /**
+     * Parses the lines in one byte range of the task file.
+     */
+    // Tasks are only run in the pool and never serialized, and a FileChannel cannot be anyway
+    @SuppressWarnings("serial")
+    private static class ChunkParser extends RecursiveTask<ArrayList<Task>> {
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        private final boolean isChecked;
+        private final boolean isHeaderChunk;
+        private int lineCount = 0;
+        private int corruptLine = 0;
+
+        ChunkParser(FileChannel channel, long start, long end, boolean isChecked, boolean isHeaderChunk) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.isChecked = isChecked;
+            this.isHeaderChunk = isHeaderChunk;
+        }
+
+        @Override
+        protected ArrayList<Task> compute() {
+            CharBuffer text;
+            try {
+                ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                text = Charset.defaultCharset().decode(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            ArrayList<Task> tasks = new ArrayList<>();
+            int lineStart = 0;
+            int length = text.length();
+            for (int i = 0; i < length && corruptLine == 0; i++) {
+                char c = text.get(i);
+                if (!isLineSeparator(c)) {
+                    continue;
+                }
+                addTask(tasks, text.subSequence(lineStart, i).toString());
+                if (c == '\r' && i + 1 < length && text.get(i + 1) == '\n') {
+                    i++;
+                }
+                lineStart = i + 1;
+            }
+            if (lineStart < length && corruptLine == 0) {
+                addTask(tasks, text.subSequence(lineStart, length).toString());
+            }
+            return tasks;
+        }
+
+        private void addTask(ArrayList<Task> tasks, String line) {
+            lineCount++;
+            if (isHeaderChunk && lineCount == 1) {
+                return;
+            }
+
+            String record = isChecked ? Checksums.verify(line) : line;
+            if (record == null) {
+                corruptLine = lineCount;
+                return;
+            }
+            Task task = Storage.parseTask(record);
+            if (task != null) {
+                tasks.add(task);
+            }
+        }
+
+        /**
+         * Returns whether the character ends a line, using the same separators as
+         * {@link java.util.Scanner#nextLine()}.
+         */
+        private static boolean isLineSeparator(char c) {
+            return c == '\n' || c == '\r' || c == '\u2028' || c == '\u2029' || c == '\u0085';
+        }
+    }
+}
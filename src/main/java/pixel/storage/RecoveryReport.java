@@ -0,0 +1,46 @@
+package pixel.storage;
+
+/**
+ * Describes the first corrupt record found while loading a checked task file.
+ * Every task before that record was loaded; the record and everything after it
+ * were not. Journal records made since the file was saved were not applied either,
+ * as they refer to positions in the whole list, and were kept in a backup instead.
+ */
+public class RecoveryReport {
+    private final int lineNumber;
+    private final int salvagedCount;
+    private final String backupPath;
+    private final String journalBackupPath;
+
+    /**
+     * Creates a report for a task file whose first corrupt record is on the given line.
+     *
+     * @param lineNumber The one-based line number of the first corrupt record
+     * @param salvagedCount The number of tasks loaded from before that record
+     * @param backupPath The path of the copy of the corrupt file
+     * @param journalBackupPath The path of the journal records that were not applied,
+     *     or null if there were none
+     */
+    public RecoveryReport(int lineNumber, int salvagedCount, String backupPath, String journalBackupPath) {
+        this.lineNumber = lineNumber;
+        this.salvagedCount = salvagedCount;
+        this.backupPath = backupPath;
+        this.journalBackupPath = journalBackupPath;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public int getSalvagedCount() {
+        return salvagedCount;
+    }
+
+    public String getBackupPath() {
+        return backupPath;
+    }
+
+    public String getJournalBackupPath() {
+        return journalBackupPath;
+    }
+}
@@ -0,0 +1,439 @@
+package pixel.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.TreeMap;
+
+import pixel.exception.PixelException;
+import pixel.task.Deadline;
+import pixel.task.Event;
+import pixel.task.Task;
+import pixel.task.TaskList;
+import pixel.task.TaskType;
+
+/**
+ * Stores tasks in a directory of segment files: one for todos, and one per month for
+ * deadlines (by their deadline) and for events (by their start). A mutation only
+ * rewrites the segment it made dirty, and a segment is only read once a command
+ * needs its tasks.
+ *
+ * <p>Each line of a segment is a task in the text format, prefixed with the task's
+ * sequence number. Sequence numbers increase in list order, so the task list is
+ * rebuilt by merging the segments by sequence number. The next sequence number is
+ * reserved in blocks in a small file, so an add rarely writes more than its segment.
+ * Each segment is replaced atomically, but a save that rewrites several segments
+ * may be interrupted between them.
+ */
+public class ShardedStorage implements TaskStorage {
+    private static final String SEGMENT_SUFFIX = ".txt";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String SEQUENCE_FILE = "sequence";
+    private static final String TODO_SEGMENT = "todo";
+    private static final String DEADLINE_PREFIX = "deadline-";
+    private static final String EVENT_PREFIX = "event-";
+    private static final String SEPARATOR = " | ";
+    private static final int SEQUENCE_BLOCK = 1024;
+
+    private final Path directory;
+    private final TreeMap<String, Segment> segments = new TreeMap<>();
+    private final IdentityHashMap<Task, Long> sequences = new IdentityHashMap<>();
+    /** Every task in list order, or null until every segment has been loaded. */
+    private TaskList order;
+    private boolean isDiscovered = false;
+    private long nextSequence = 0;
+    private long reservedSequence = 0;
+
+    /**
+     * Creates a sharded storage that keeps its segments in the given directory.
+     *
+     * @param directoryPath The path to the directory holding the segment files
+     */
+    public ShardedStorage(String directoryPath) {
+        this.directory = Paths.get(directoryPath);
+    }
+
+    /**
+     * Loads every segment and merges them into the task list.
+     *
+     * @return An ArrayList of all tasks in list order, or an empty list if there are no segments
+     * @throws PixelException If there's an error reading a segment
+     */
+    @Override
+    public ArrayList<Task> load() throws PixelException {
+        segments.clear();
+        sequences.clear();
+        order = null;
+        isDiscovered = false;
+        try {
+            return new ArrayList<>(getOrder());
+        } catch (IOException e) {
+            throw new PixelException("Error loading tasks from file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads only the segments holding tasks of the given type in the given months.
+     * Todos are not bucketed by month, so every todo is returned for that type.
+     *
+     * @param type The type of the tasks to load
+     * @param from The first month to load
+     * @param to The last month to load
+     * @return The matching tasks, in list order
+     * @throws PixelException If there's an error reading a segment
+     */
+    public ArrayList<Task> load(TaskType type, YearMonth from, YearMonth to) throws PixelException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        try {
+            discover();
+            for (Segment segment : segments.values()) {
+                if (segment.isIn(type, from, to)) {
+                    tasks.addAll(loadSegment(segment));
+                }
+            }
+        } catch (IOException e) {
+            throw new PixelException("Error loading tasks from file: " + e.getMessage());
+        }
+        tasks.sort(Comparator.comparingLong(sequences::get));
+        return tasks;
+    }
+
+    /**
+     * Returns true, as the segments of other months are not read.
+     */
+    @Override
+    public boolean canLoadPartially() {
+        return true;
+    }
+
+    /**
+     * Loads only the deadline and event segments of the given month and the months
+     * before it.
+     *
+     * @param lastMonth The last month to load
+     * @return The matching tasks, in list order
+     * @throws PixelException If there's an error reading a segment
+     */
+    @Override
+    public ArrayList<Task> loadDatedUntil(YearMonth lastMonth) throws PixelException {
+        YearMonth firstMonth = YearMonth.of(Year.MIN_VALUE, 1);
+        ArrayList<Task> tasks = new ArrayList<>();
+        try {
+            discover();
+            for (Segment segment : segments.values()) {
+                if (segment.isIn(TaskType.DEADLINE, firstMonth, lastMonth)
+                        || segment.isIn(TaskType.EVENT, firstMonth, lastMonth)) {
+                    tasks.addAll(loadSegment(segment));
+                }
+            }
+        } catch (IOException e) {
+            throw new PixelException("Error loading tasks from file: " + e.getMessage());
+        }
+        tasks.sort(Comparator.comparingLong(sequences::get));
+        return tasks;
+    }
+
+    /**
+     * Replaces every segment with the tasks in the given list.
+     *
+     * @throws PixelException If there's an error writing a segment
+     */
+    @Override
+    public void save(List<Task> tasks) throws PixelException {
+        try {
+            discover();
+            for (Segment segment : segments.values()) {
+                segment.tasks = new ArrayList<>();
+                segment.isDirty = true;
+            }
+            sequences.clear();
+            for (Task task : tasks) {
+                addToSegment(task);
+            }
+            order = new TaskList(tasks);
+            writeDirtySegments();
+        } catch (IOException e) {
+            throw new PixelException("Error saving tasks to file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Appends the task to its segment, reading only that segment if it was not loaded.
+     *
+     * @throws PixelException If there's an error writing the segment
+     */
+    @Override
+    public void recordAdd(List<Task> tasks, Task task) throws PixelException {
+        try {
+            discover();
+            addToSegment(task);
+            if (order != null) {
+                order.add(task);
+            }
+            writeDirtySegments();
+        } catch (IOException e) {
+            throw new PixelException("Error saving tasks to file: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void recordMark(List<Task> tasks, int index) throws PixelException {
+        rewriteSegmentOf(index);
+    }
+
+    @Override
+    public void recordUnmark(List<Task> tasks, int index) throws PixelException {
+        rewriteSegmentOf(index);
+    }
+
+    /**
+     * Removes the task that had the given index from its segment. Finding the task
+     * takes O(log n), but its segment is rewritten, which takes time in proportion to
+     * the tasks in that segment.
+     *
+     * @throws PixelException If there's an error writing the segment
+     */
+    @Override
+    public void recordDelete(List<Task> tasks, int index) throws PixelException {
+        try {
+            Task task = getTask(index);
+            order.remove(index);
+            Segment segment = segments.get(getSegmentName(task));
+            segment.tasks.remove(task);
+            segment.isDirty = true;
+            sequences.remove(task);
+            writeDirtySegments();
+        } catch (IOException e) {
+            throw new PixelException("Error saving tasks to file: " + e.getMessage());
+        }
+    }
+
+    private void rewriteSegmentOf(int index) throws PixelException {
+        try {
+            Task task = getTask(index);
+            segments.get(getSegmentName(task)).isDirty = true;
+            writeDirtySegments();
+        } catch (IOException e) {
+            throw new PixelException("Error saving tasks to file: " + e.getMessage());
+        }
+    }
+
+    private Task getTask(int index) throws IOException {
+        List<Task> tasks = getOrder();
+        if (index < 0 || index >= tasks.size()) {
+            throw new IOException("Task " + (index + 1) + " is not in the task files");
+        }
+        return tasks.get(index);
+    }
+
+    /**
+     * Segments are written as soon as they are dirtied, so there is nothing to flush.
+     */
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Malformed lines in a segment are skipped rather than reported, so there is never a report.
+     */
+    @Override
+    public RecoveryReport getRecoveryReport() {
+        return null;
+    }
+
+    /**
+     * Returns the name of the segment the task belongs to.
+     */
+    static String getSegmentName(Task task) {
+        switch (task.getTaskType()) {
+        case DEADLINE:
+            return DEADLINE_PREFIX + YearMonth.from(((Deadline) task).getBy());
+        case EVENT:
+            return EVENT_PREFIX + YearMonth.from(((Event) task).getFrom());
+        default:
+            return TODO_SEGMENT;
+        }
+    }
+
+    private void addToSegment(Task task) throws IOException {
+        String name = getSegmentName(task);
+        Segment segment = segments.get(name);
+        if (segment == null) {
+            segment = new Segment(name);
+            segment.tasks = new ArrayList<>();
+            segments.put(name, segment);
+        }
+        loadSegment(segment);
+        sequences.put(task, takeSequence());
+        segment.tasks.add(task);
+        segment.isDirty = true;
+    }
+
+    /**
+     * Returns every task in list order, loading the segments that were not loaded yet.
+     */
+    private TaskList getOrder() throws IOException {
+        if (order != null) {
+            return order;
+        }
+        discover();
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (Segment segment : segments.values()) {
+            tasks.addAll(loadSegment(segment));
+        }
+        tasks.sort(Comparator.comparingLong(sequences::get));
+        order = new TaskList(tasks);
+        return order;
+    }
+
+    /**
+     * Finds the segment files and the next sequence number, without reading any segment.
+     */
+    private void discover() throws IOException {
+        if (isDiscovered) {
+            return;
+        }
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                String fileName = file.getFileName().toString();
+                String name = fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length());
+                segments.put(name, new Segment(name));
+            }
+        }
+
+        Path sequencePath = directory.resolve(SEQUENCE_FILE);
+        if (Files.exists(sequencePath)) {
+            try {
+                nextSequence = Long.parseLong(Files.readString(sequencePath).trim());
+            } catch (NumberFormatException e) {
+                // Loaded segments raise the next sequence number past every number they use
+                nextSequence = 0;
+            }
+        }
+        reservedSequence = nextSequence;
+        isDiscovered = true;
+    }
+
+    private ArrayList<Task> loadSegment(Segment segment) throws IOException {
+        if (segment.tasks != null) {
+            return segment.tasks;
+        }
+
+        segment.tasks = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(segment.getPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separatorIndex = line.indexOf(SEPARATOR);
+                if (separatorIndex < 0) {
+                    continue;
+                }
+                Task task = Storage.parseTask(line.substring(separatorIndex + SEPARATOR.length()));
+                if (task == null) {
+                    continue;
+                }
+                try {
+                    long sequence = Long.parseLong(line.substring(0, separatorIndex));
+                    sequences.put(task, sequence);
+                    nextSequence = Math.max(nextSequence, sequence + 1);
+                    segment.tasks.add(task);
+                } catch (NumberFormatException e) {
+                    // Skip lines without a sequence number
+                }
+            }
+        }
+        return segment.tasks;
+    }
+
+    private long takeSequence() throws IOException {
+        if (nextSequence >= reservedSequence) {
+            reservedSequence = nextSequence + SEQUENCE_BLOCK;
+            writeAtomically(directory.resolve(SEQUENCE_FILE), List.of(Long.toString(reservedSequence)));
+        }
+        return nextSequence++;
+    }
+
+    private void writeDirtySegments() throws IOException {
+        ArrayList<String> emptied = new ArrayList<>();
+        for (Segment segment : segments.values()) {
+            if (!segment.isDirty) {
+                continue;
+            }
+            if (segment.tasks.isEmpty()) {
+                Files.deleteIfExists(segment.getPath());
+                emptied.add(segment.name);
+            } else {
+                ArrayList<String> lines = new ArrayList<>(segment.tasks.size());
+                for (Task task : segment.tasks) {
+                    lines.add(sequences.get(task) + SEPARATOR + Storage.formatTask(task));
+                }
+                writeAtomically(segment.getPath(), lines);
+            }
+            segment.isDirty = false;
+        }
+        for (String name : emptied) {
+            segments.remove(name);
+        }
+    }
+
+    private void writeAtomically(Path path, List<String> lines) throws IOException {
+        Path tempPath = path.resolveSibling(path.getFileName() + TEMP_SUFFIX);
+        try (BufferedWriter writer = Files.newBufferedWriter(tempPath, StandardCharsets.UTF_8)) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+        Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * One segment file and, once it has been read, its tasks in list order.
+     */
+    private class Segment {
+        private final String name;
+        private ArrayList<Task> tasks;
+        private boolean isDirty = false;
+
+        Segment(String name) {
+            this.name = name;
+        }
+
+        Path getPath() {
+            return directory.resolve(name + SEGMENT_SUFFIX);
+        }
+
+        boolean isIn(TaskType type, YearMonth from, YearMonth to) {
+            if (type == TaskType.TODO) {
+                return name.equals(TODO_SEGMENT);
+            }
+            String prefix = type == TaskType.DEADLINE ? DEADLINE_PREFIX : EVENT_PREFIX;
+            if (!name.startsWith(prefix)) {
+                return false;
+            }
+            try {
+                YearMonth month = YearMonth.parse(name.substring(prefix.length()));
+                return !month.isBefore(from) && !month.isAfter(to);
+            } catch (DateTimeParseException e) {
+                return false;
+            }
+        }
+    }
+}
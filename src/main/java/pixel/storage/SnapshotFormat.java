@@ -0,0 +1,15 @@
+package pixel.storage;
+
+/**
+ * Enumeration representing the file format of the task file.
+ */
+public enum SnapshotFormat {
+    /** One pipe-delimited line per task. */
+    TEXT,
+    /** The text format with a CRC32 checksum at the end of every line, to detect corrupt records. */
+    CHECKED_TEXT,
+    /** Fixed-width binary task headers with length-prefixed descriptions, read through a memory mapping. */
+    BINARY,
+    /** The text format in independently deflated blocks with a block index, for large archived files. */
+    COMPRESSED
+}
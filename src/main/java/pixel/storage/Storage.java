@@ -1,65 +1,153 @@
 package pixel.storage;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 import pixel.exception.PixelException;
+import pixel.parser.DateTimeCodec;
 import pixel.task.Deadline;
 import pixel.task.Event;
 import pixel.task.Task;
 import pixel.task.Todo;
 
 /**
- * Class responsible for loading and saving tasks to a file.
+ * Class responsible for loading and saving tasks to a file. This is the default
+ * {@link TaskStorage}, keeping every task in a single file.
  */
-public class Storage {
-    private static final DateTimeFormatter STORAGE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+public class Storage implements TaskStorage {
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String CORRUPT_SUFFIX = ".corrupt";
+    private static final int MIN_TOMBSTONES_TO_RECLAIM = 1024;
     private final Path filePath;
+    private final StorageMode mode;
+    private final Journal journal;
+    private final JournalCompactor compactor;
+    private final Durability durability;
+    private final SnapshotFormat format;
+    private final WriteBehindWriter writeBehindWriter;
+    private final FixedWidthFile fixedWidthFile;
+    private RecoveryReport recoveryReport;
+    private boolean isLazy = false;
 
     /**
-     * Creates a new Storage instance with the specified file path.
+     * Creates a new Storage instance with the specified file path that rewrites
+     * the whole file on every mutation.
      *
      * @param filePath The path to the file where tasks will be saved/loaded
      */
     public Storage(String filePath) {
+        this(filePath, StorageMode.SNAPSHOT);
+    }
+
+    /**
+     * Creates a new Storage instance with the specified file path and storage mode.
+     * In journal mode, mutations are appended to a journal file next to the task file.
+     *
+     * @param filePath The path to the file where tasks will be saved/loaded
+     * @param mode How mutations are persisted
+     */
+    public Storage(String filePath, StorageMode mode) {
+        this(filePath, mode, Durability.NONE);
+    }
+
+    /**
+     * Creates a new Storage instance with the specified file path, storage mode and
+     * durability policy. The durability policy applies to journal records.
+     *
+     * @param filePath The path to the file where tasks will be saved/loaded
+     * @param mode How mutations are persisted
+     * @param durability When journal records are forced to disk
+     */
+    public Storage(String filePath, StorageMode mode, Durability durability) {
+        this(filePath, mode, durability, SnapshotFormat.TEXT);
+    }
+
+    /**
+     * Creates a new Storage instance with the specified file path, storage mode,
+     * durability policy and task file format.
+     *
+     * @param filePath The path to the file where tasks will be saved/loaded
+     * @param mode How mutations are persisted
+     * @param durability When journal records are forced to disk
+     * @param format The format of the task file
+     */
+    public Storage(String filePath, StorageMode mode, Durability durability, SnapshotFormat format) {
         this.filePath = Paths.get(filePath);
+        this.mode = mode;
+        this.durability = durability;
+        this.format = format;
+        this.journal = new Journal(this.filePath.resolveSibling(this.filePath.getFileName() + JOURNAL_SUFFIX));
+        this.compactor = new JournalCompactor(this.filePath, journal.getPath(), format);
+        this.writeBehindWriter = new WriteBehindWriter(journal, compactor, durability);
+        this.fixedWidthFile = new FixedWidthFile(this.filePath, durability);
+    }
+
+    /**
+     * Sets whether tasks in a binary task file are loaded lazily. A lazily loaded task
+     * only reads its type and status on load, and decodes its description and dates
+     * from the mapped file the first time they are accessed, so that loading does not
+     * grow with the cost of decoding every task. Text files are always parsed in full,
+     * as malformed lines are only found by parsing them.
+     */
+    public void setLazyLoading(boolean isLazy) {
+        this.isLazy = isLazy;
     }
 
     /**
      * Loads tasks from the storage file. Creates the directory structure if it
-     * doesn't exist.
+     * doesn't exist. In journal mode, the journal is replayed on top of the file.
      *
      * @return An ArrayList of tasks loaded from the file, or an empty list if the file doesn't exist
      * @throws PixelException If there's an error reading the file
      */
+    @Override
     public ArrayList<Task> load() throws PixelException {
         ArrayList<Task> tasks = new ArrayList<>();
 
         try {
             ensureDirectoryExists();
 
-            if (!Files.exists(filePath)) {
-                assert tasks != null : "Task list should never be null";
+            if (mode == StorageMode.IN_PLACE) {
+                fixedWidthFile.load(tasks);
                 return tasks;
             }
 
-            File file = filePath.toFile();
-            try (Scanner scanner = new Scanner(file)) {
-                while (scanner.hasNextLine()) {
-                    String line = scanner.nextLine();
-                    Task task = parseTask(line);
-                    if (task != null) {
-                        tasks.add(task);
-                    }
-                }
+            if (isJournaled()) {
+                writeBehindWriter.flush();
+                compactor.awaitIdle();
+                compactor.recover();
+            }
+
+            int corruptLine = readSnapshot(filePath, format, tasks, isLazy);
+            if (corruptLine > 0) {
+                // Keep the corrupt file, then replace it with the salvaged tasks so that later
+                // journal records apply to them rather than to a file that fails to load again
+                Path backupPath = getUnusedBackupPath(filePath);
+                Files.copy(filePath, backupPath);
+                Path journalBackupPath = isJournaled() ? setJournalAside() : null;
+                writeSnapshotAtomically(filePath, format, tasks, durability != Durability.NONE);
+                recoveryReport = new RecoveryReport(corruptLine, tasks.size(), backupPath.toString(),
+                        journalBackupPath == null ? null : journalBackupPath.toString());
+                return tasks;
+            }
+
+            if (isJournaled()) {
+                Journal.replay(compactor.getCompactingPath(), tasks, Storage::parseTask);
+                journal.replay(tasks, Storage::parseTask);
             }
         } catch (IOException e) {
             throw new PixelException("Error loading tasks from file: " + e.getMessage());
@@ -69,26 +157,398 @@ public class Storage {
         return tasks;
     }
 
+    /**
+     * Moves the records being compacted and the journal, in that order, into one backup
+     * file instead of replaying them. Their indexes refer to the whole task list, so
+     * applying them to a salvaged prefix of it would change the wrong tasks.
+     *
+     * @return The path of the backup, or null if there were no records
+     */
+    private Path setJournalAside() throws IOException {
+        Path compactingPath = compactor.getCompactingPath();
+        if (!Files.exists(compactingPath) && !Files.exists(journal.getPath())) {
+            return null;
+        }
+        Path backupPath = getUnusedBackupPath(journal.getPath());
+        Files.createFile(backupPath);
+        for (Path records : new Path[] {compactingPath, journal.getPath()}) {
+            if (Files.exists(records)) {
+                Files.write(backupPath, Files.readAllBytes(records), StandardOpenOption.APPEND);
+            }
+        }
+        Files.deleteIfExists(compactingPath);
+        journal.clear();
+        return backupPath;
+    }
+
+    /**
+     * Returns a backup path for the given file that no earlier recovery has used, so a
+     * second recovery never overwrites the first one's backup.
+     */
+    private static Path getUnusedBackupPath(Path path) {
+        Path backupPath = path.resolveSibling(path.getFileName() + CORRUPT_SUFFIX);
+        for (int i = 1; Files.exists(backupPath); i++) {
+            backupPath = path.resolveSibling(path.getFileName() + CORRUPT_SUFFIX + "." + i);
+        }
+        return backupPath;
+    }
+
+    /**
+     * Loads the tasks in the given range of the task list. A compressed task file only
+     * decompresses the blocks holding the range; other formats, and storage modes
+     * whose journal may have changed the list, load every task.
+     *
+     * @param fromIndex The zero-based index of the first task to load
+     * @param count The maximum number of tasks to load
+     * @return The tasks in the range, which is empty if it starts past the end of the list
+     * @throws PixelException If there's an error reading the file
+     */
+    public ArrayList<Task> loadRange(int fromIndex, int count) throws PixelException {
+        if (format != SnapshotFormat.COMPRESSED || mode != StorageMode.SNAPSHOT) {
+            ArrayList<Task> tasks = load();
+            int from = Math.min(Math.max(0, fromIndex), tasks.size());
+            return new ArrayList<>(tasks.subList(from, Math.min(tasks.size(), from + Math.max(0, count))));
+        }
+
+        try {
+            if (!Files.exists(filePath)) {
+                return new ArrayList<>();
+            }
+            return CompressedSnapshot.readRange(filePath, fromIndex, count);
+        } catch (IOException e) {
+            throw new PixelException("Error loading tasks from file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the report of the corrupt record found by the last load, or null if
+     * the task file was intact.
+     */
+    @Override
+    public RecoveryReport getRecoveryReport() {
+        return recoveryReport;
+    }
+
     /**
      * Saves the given list of tasks to the storage file. Creates the directory
-     * structure if it doesn't exist.
+     * structure if it doesn't exist. The tasks are written to a temporary file that
+     * then replaces the storage file, so a crash never leaves a partly written file.
+     * In journal mode, the journal is cleared as the file now holds every mutation.
      *
      * @throws PixelException If there's an error writing to the file
      */
-    public void save(ArrayList<Task> tasks) throws PixelException {
+    @Override
+    public void save(List<Task> tasks) throws PixelException {
         try {
             ensureDirectoryExists();
 
-            try (FileWriter writer = new FileWriter(filePath.toFile())) {
-                for (Task task : tasks) {
-                    writer.write(formatTask(task) + System.lineSeparator());
-                }
+            if (mode == StorageMode.IN_PLACE) {
+                fixedWidthFile.rewrite(tasks);
+                return;
+            }
+
+            if (isJournaled()) {
+                writeBehindWriter.flush();
+                compactor.awaitIdle();
+            }
+
+            writeSnapshotAtomically(filePath, format, tasks, durability != Durability.NONE);
+
+            if (isJournaled()) {
+                Files.deleteIfExists(compactor.getCompactingPath());
+                journal.clear();
+            }
+        } catch (IOException e) {
+            throw new PixelException("Error saving tasks to file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Persists a task that was just appended to the given list.
+     *
+     * @param tasks The task list after the task was added
+     * @param task The task that was added
+     * @throws PixelException If there's an error writing to the file
+     */
+    @Override
+    public void recordAdd(List<Task> tasks, Task task) throws PixelException {
+        record(tasks, Journal.addRecord(formatTask(task)), () -> fixedWidthFile.append(task));
+    }
+
+    /**
+     * Persists that the task at the given index was marked as done.
+     *
+     * @param tasks The task list after the task was marked
+     * @param index The zero-based index of the marked task
+     * @throws PixelException If there's an error writing to the file
+     */
+    @Override
+    public void recordMark(List<Task> tasks, int index) throws PixelException {
+        record(tasks, Journal.markRecord(index), () -> fixedWidthFile.writeStatus(index, true));
+    }
+
+    /**
+     * Persists that the task at the given index was marked as not done.
+     *
+     * @param tasks The task list after the task was unmarked
+     * @param index The zero-based index of the unmarked task
+     * @throws PixelException If there's an error writing to the file
+     */
+    @Override
+    public void recordUnmark(List<Task> tasks, int index) throws PixelException {
+        record(tasks, Journal.unmarkRecord(index), () -> fixedWidthFile.writeStatus(index, false));
+    }
+
+    /**
+     * Persists that the task at the given index was deleted.
+     *
+     * @param tasks The task list after the task was removed
+     * @param index The zero-based index the deleted task had
+     * @throws PixelException If there's an error writing to the file
+     */
+    @Override
+    public void recordDelete(List<Task> tasks, int index) throws PixelException {
+        record(tasks, Journal.deleteRecord(index), () -> {
+            fixedWidthFile.delete(index);
+            // Reclaiming tombstones once they outnumber live tasks keeps deletes amortised O(1)
+            int tombstones = fixedWidthFile.getTombstoneCount();
+            if (tombstones >= MIN_TOMBSTONES_TO_RECLAIM && tombstones > fixedWidthFile.getLiveCount()) {
+                fixedWidthFile.rewrite(tasks);
+            }
+        });
+    }
+
+    /**
+     * Persists one mutation: in place, by saving the whole list, or as a journal record,
+     * depending on the storage mode.
+     *
+     * @param tasks The task list after the mutation
+     * @param journalRecord The journal record of the mutation
+     * @param inPlaceWrite The change to the fixed-width file that makes the mutation
+     */
+    private void record(List<Task> tasks, String journalRecord, InPlaceWrite inPlaceWrite) throws PixelException {
+        try {
+            ensureDirectoryExists();
+            switch (mode) {
+            case IN_PLACE:
+                inPlaceWrite.run();
+                break;
+            case SNAPSHOT:
+                save(tasks);
+                break;
+            default:
+                appendToJournal(journalRecord);
+                break;
             }
         } catch (IOException e) {
             throw new PixelException("Error saving tasks to file: " + e.getMessage());
         }
     }
 
+    private void appendToJournal(String record) throws IOException {
+        if (mode == StorageMode.WRITE_BEHIND) {
+            writeBehindWriter.enqueue(record);
+            return;
+        }
+
+        journal.append(record);
+        if (durability != Durability.NONE) {
+            journal.sync();
+        }
+        if (compactor.isDue(journal)) {
+            compactor.start(journal);
+        }
+    }
+
+    /**
+     * Waits until every mutation recorded so far has been written to the journal.
+     * Only has an effect in write-behind mode, as other modes write synchronously.
+     *
+     * @throws PixelException If a mutation could not be written
+     */
+    @Override
+    public void flush() throws PixelException {
+        try {
+            writeBehindWriter.flush();
+        } catch (IOException e) {
+            throw new PixelException("Error saving tasks to file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts folding the journal into a fresh snapshot on the background compaction
+     * thread, without waiting for the journal to reach its size threshold.
+     *
+     * @throws PixelException If the journal cannot be moved aside for compaction
+     */
+    public void compact() throws PixelException {
+        if (!isJournaled()) {
+            return;
+        }
+        try {
+            // Compaction moves the journal aside, so the writer must not be appending to it
+            writeBehindWriter.flush();
+            compactor.start(journal);
+        } catch (IOException e) {
+            throw new PixelException("Error compacting tasks file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes pending mutations, waits for background compaction to finish and
+     * releases the file handles held by this storage.
+     *
+     * @throws PixelException If there's an error closing the journal or compacting it
+     */
+    @Override
+    public void close() throws PixelException {
+        try {
+            writeBehindWriter.close();
+            journal.close();
+            compactor.shutdown();
+            fixedWidthFile.close();
+        } catch (IOException e) {
+            throw new PixelException("Error closing storage: " + e.getMessage());
+        }
+    }
+
+    private boolean isJournaled() {
+        return mode == StorageMode.JOURNAL || mode == StorageMode.WRITE_BEHIND;
+    }
+
+    /**
+     * Reads tasks from a file in the text format, such as one exported from another
+     * Pixel installation, regardless of the format of this storage's task file.
+     *
+     * @param textFilePath The path to the text file to import
+     * @return The well-formed tasks in the file
+     * @throws PixelException If there's an error reading the file
+     */
+    public ArrayList<Task> importText(String textFilePath) throws PixelException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        try {
+            readSnapshot(Paths.get(textFilePath), SnapshotFormat.TEXT, tasks, false);
+        } catch (IOException e) {
+            throw new PixelException("Error importing tasks from file: " + e.getMessage());
+        }
+        return tasks;
+    }
+
+    /**
+     * Writes the given tasks to a file in the text format, regardless of the format
+     * of this storage's task file.
+     *
+     * @param textFilePath The path to the text file to write
+     * @throws PixelException If there's an error writing the file
+     */
+    public void exportText(String textFilePath, ArrayList<Task> tasks) throws PixelException {
+        try {
+            writeSnapshot(Paths.get(textFilePath), SnapshotFormat.TEXT, tasks, false);
+        } catch (IOException e) {
+            throw new PixelException("Error exporting tasks to file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads every well-formed task in the given file into the task list. Large text
+     * files are parsed in parallel. If the file is a checked text file, reading stops
+     * at the first record whose checksum does not match.
+     *
+     * @param isLazy Whether tasks in a binary file decode their fields on first access
+     * @return The one-based line number of the first corrupt record, or 0 if there is none
+     */
+    static int readSnapshot(Path path, SnapshotFormat format, ArrayList<Task> tasks, boolean isLazy)
+            throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+
+        if (format == SnapshotFormat.BINARY) {
+            BinarySnapshot.read(path, tasks, isLazy);
+            return 0;
+        }
+
+        if (format == SnapshotFormat.COMPRESSED) {
+            CompressedSnapshot.read(path, tasks);
+            return 0;
+        }
+
+        if (Files.size(path) >= ParallelTextLoader.MIN_PARALLEL_SIZE) {
+            return ParallelTextLoader.read(path, tasks);
+        }
+
+        File file = path.toFile();
+        try (Scanner scanner = new Scanner(file)) {
+            int lineNumber = 0;
+            boolean isChecked = false;
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine();
+                lineNumber++;
+                if (lineNumber == 1 && line.equals(Checksums.HEADER)) {
+                    isChecked = true;
+                    continue;
+                }
+                if (isChecked) {
+                    line = Checksums.verify(line);
+                    if (line == null) {
+                        return lineNumber;
+                    }
+                }
+                Task task = parseTask(line);
+                if (task != null) {
+                    tasks.add(task);
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Writes the tasks to the given file, replacing its contents.
+     *
+     * @param sync Whether to force the file to the storage device before returning
+     */
+    static void writeSnapshot(Path path, SnapshotFormat format, List<Task> tasks, boolean sync) throws IOException {
+        if (format == SnapshotFormat.BINARY) {
+            BinarySnapshot.write(path, tasks, sync);
+            return;
+        }
+
+        if (format == SnapshotFormat.COMPRESSED) {
+            CompressedSnapshot.write(path, tasks, sync);
+            return;
+        }
+
+        boolean isChecked = format == SnapshotFormat.CHECKED_TEXT;
+        try (FileOutputStream out = new FileOutputStream(path.toFile());
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out))) {
+            if (isChecked) {
+                writer.write(Checksums.HEADER + System.lineSeparator());
+            }
+            for (Task task : tasks) {
+                String line = isChecked ? Checksums.append(formatTask(task)) : formatTask(task);
+                writer.write(line + System.lineSeparator());
+            }
+            writer.flush();
+            if (sync) {
+                out.getFD().sync();
+            }
+        }
+    }
+
+    /**
+     * Writes the tasks to a temporary file next to the given file and then renames it
+     * over the file, so that a crash while saving leaves the previous contents intact.
+     *
+     * @param sync Whether to force the temporary file to the storage device before the rename
+     */
+    static void writeSnapshotAtomically(Path path, SnapshotFormat format, List<Task> tasks, boolean sync)
+            throws IOException {
+        Path tempPath = path.resolveSibling(path.getFileName() + TEMP_SUFFIX);
+        writeSnapshot(tempPath, format, tasks, sync);
+        Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
     private void ensureDirectoryExists() throws IOException {
         Path directory = filePath.getParent();
         if (directory != null && !Files.exists(directory)) {
@@ -100,24 +560,25 @@ public class Storage {
      * Formats a task into a pipe-delimited string for storage. Format: TYPE |
      * STATUS | DESCRIPTION | [EXTRA_FIELDS]
      */
-    private String formatTask(Task task) {
-        String type = task.getTaskType().getCode();
-        String done = task.getStatusIcon().equals("X") ? "1" : "0";
+    static String formatTask(Task task) {
+        StringBuilder line = new StringBuilder(64);
+        line.append(task.getTaskType().getCode()).append(" | ").append(task.getStatusIcon().equals("X") ? '1' : '0')
+                .append(" | ").append(task.getDescription());
 
-        if (task instanceof Todo) {
-            return type + " | " + done + " | " + task.getDescription();
-        } else if (task instanceof Deadline) {
-            Deadline deadline = (Deadline) task;
-            return type + " | " + done + " | " + deadline.getDescription() + " | "
-                                            + deadline.getBy().format(STORAGE_FORMATTER);
+        if (task instanceof Deadline) {
+            line.append(" | ");
+            DateTimeCodec.appendStorage(line, ((Deadline) task).getBy());
         } else if (task instanceof Event) {
             Event event = (Event) task;
-            return type + " | " + done + " | " + event.getDescription() + " | "
-                                            + event.getFrom().format(STORAGE_FORMATTER) + " | "
-                                            + event.getTo().format(STORAGE_FORMATTER);
+            line.append(" | ");
+            DateTimeCodec.appendStorage(line, event.getFrom());
+            line.append(" | ");
+            DateTimeCodec.appendStorage(line, event.getTo());
+        } else if (!(task instanceof Todo)) {
+            return "";
         }
 
-        return "";
+        return line.toString();
     }
 
     /**
@@ -126,7 +587,7 @@ public class Storage {
      *
      * @return The parsed Task object, or null if parsing fails
      */
-    private Task parseTask(String line) {
+    static Task parseTask(String line) {
         String[] parts = line.split(" \\| ");
 
         if (parts.length < 3) {
@@ -148,26 +609,21 @@ public class Storage {
             break;
         case "D":
             if (parts.length >= 4) {
-                try {
-                    LocalDateTime by = LocalDateTime.parse(parts[3], STORAGE_FORMATTER);
-                    assert by != null : "Parsed deadline date should not be null";
-                    task = new Deadline(description, by);
-                } catch (Exception e) {
+                LocalDateTime by = DateTimeCodec.parseStorage(parts[3], 0, parts[3].length());
+                if (by == null) {
                     return null; // If parsing fails, skip this task
                 }
+                task = new Deadline(description, by);
             }
             break;
         case "E":
             if (parts.length >= 5) {
-                try {
-                    LocalDateTime from = LocalDateTime.parse(parts[3], STORAGE_FORMATTER);
-                    LocalDateTime to = LocalDateTime.parse(parts[4], STORAGE_FORMATTER);
-                    assert from != null : "Parsed event start date should not be null";
-                    assert to != null : "Parsed event end date should not be null";
-                    task = new Event(description, from, to);
-                } catch (Exception e) {
+                LocalDateTime from = DateTimeCodec.parseStorage(parts[3], 0, parts[3].length());
+                LocalDateTime to = DateTimeCodec.parseStorage(parts[4], 0, parts[4].length());
+                if (from == null || to == null) {
                     return null;
                 }
+                task = new Event(description, from, to);
             }
             break;
 
@@ -181,4 +637,9 @@ public class Storage {
 
         return task;
     }
+
+    @FunctionalInterface
+    private interface InPlaceWrite {
+        void run() throws IOException;
+    }
 }
@@ -0,0 +1,19 @@
+package pixel.storage;
+
+/**
+ * Enumeration representing how mutations to the task list are persisted.
+ */
+public enum StorageMode {
+    /** Every mutation rewrites the whole task file. */
+    SNAPSHOT,
+    /** Every mutation appends one record to a journal that is replayed on top of the task file. */
+    JOURNAL,
+    /** Journal records are queued and appended in batches by a background writer thread. */
+    WRITE_BEHIND,
+    /**
+     * The task file uses fixed-width records: marking a task rewrites one byte in place,
+     * adding appends one record and deleting leaves a tombstone. The snapshot format is
+     * ignored in this mode.
+     */
+    IN_PLACE
+}
@@ -0,0 +1,105 @@
+package pixel.storage;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import pixel.exception.PixelException;
+import pixel.task.Deadline;
+import pixel.task.Event;
+import pixel.task.Task;
+
+/**
+ * Persists the task list. Mutations are reported one at a time through the record
+ * methods, each called after the list was changed, so that implementations can
+ * write only what the mutation touched.
+ */
+public interface TaskStorage {
+    /**
+     * Loads every task, in list order.
+     *
+     * @throws PixelException If the tasks cannot be read
+     */
+    ArrayList<Task> load() throws PixelException;
+
+    /**
+     * Returns whether {@link #loadDatedUntil(YearMonth)} reads less than {@link #load()},
+     * so that loading the whole list can be put off until a command needs it.
+     */
+    default boolean canLoadPartially() {
+        return false;
+    }
+
+    /**
+     * Loads the deadlines due and the events starting in or before the given month, in
+     * list order. By default, every task is loaded and the rest are dropped.
+     *
+     * @param lastMonth The last month to load
+     * @throws PixelException If the tasks cannot be read
+     */
+    default ArrayList<Task> loadDatedUntil(YearMonth lastMonth) throws PixelException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (Task task : load()) {
+            if ((task instanceof Deadline && !YearMonth.from(((Deadline) task).getBy()).isAfter(lastMonth))
+                    || (task instanceof Event && !YearMonth.from(((Event) task).getFrom()).isAfter(lastMonth))) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Replaces every stored task with the given list.
+     *
+     * @throws PixelException If the tasks cannot be written
+     */
+    void save(List<Task> tasks) throws PixelException;
+
+    /**
+     * Persists a task that was just appended to the given list.
+     *
+     * @throws PixelException If the task cannot be written
+     */
+    void recordAdd(List<Task> tasks, Task task) throws PixelException;
+
+    /**
+     * Persists that the task at the given index was marked as done.
+     *
+     * @throws PixelException If the task cannot be written
+     */
+    void recordMark(List<Task> tasks, int index) throws PixelException;
+
+    /**
+     * Persists that the task at the given index was marked as not done.
+     *
+     * @throws PixelException If the task cannot be written
+     */
+    void recordUnmark(List<Task> tasks, int index) throws PixelException;
+
+    /**
+     * Persists that the task at the given index was removed from the list.
+     *
+     * @throws PixelException If the deletion cannot be written
+     */
+    void recordDelete(List<Task> tasks, int index) throws PixelException;
+
+    /**
+     * Waits until every recorded mutation has been written.
+     *
+     * @throws PixelException If a mutation could not be written
+     */
+    void flush() throws PixelException;
+
+    /**
+     * Writes pending mutations and releases any resources held by the storage.
+     *
+     * @throws PixelException If a mutation could not be written
+     */
+    void close() throws PixelException;
+
+    /**
+     * Returns the report of the corrupt data found by the last load, or null if
+     * everything was intact.
+     */
+    RecoveryReport getRecoveryReport();
+}
@@ -0,0 +1,159 @@
+package pixel.storage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Appends journal records on a single background thread. Records queued while a
+ * batch is being written are coalesced into the next batch, which is written and
+ * flushed as one unit.
+ *
+ * <p>Once a batch fails to be written, every later call reports the failure, as
+ * the journal can no longer be replayed past the missing records.
+ */
+class WriteBehindWriter {
+    private final Journal journal;
+    private final JournalCompactor compactor;
+    private final Durability durability;
+    private final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+    private final Object lock = new Object();
+    private long enqueuedCount = 0;
+    private long writtenCount = 0;
+    private IOException error;
+    private Thread thread;
+
+    /**
+     * Creates a writer that appends to the given journal.
+     *
+     * @param journal The journal records are appended to
+     * @param compactor The compactor started when the journal grows past its threshold
+     * @param durability When records are forced to disk
+     */
+    WriteBehindWriter(Journal journal, JournalCompactor compactor, Durability durability) {
+        this.journal = journal;
+        this.compactor = compactor;
+        this.durability = durability;
+    }
+
+    /**
+     * Queues a record to be appended to the journal. Returns without waiting for
+     * the record to be written.
+     *
+     * @throws IOException If an earlier batch could not be written
+     */
+    void enqueue(String record) throws IOException {
+        synchronized (lock) {
+            if (error != null) {
+                throw error;
+            }
+            if (thread == null) {
+                thread = new Thread(this::run, "pixel-writer");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            enqueuedCount++;
+            queue.add(record);
+        }
+    }
+
+    private void run() {
+        ArrayList<String> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch);
+
+            IOException failure = null;
+            try {
+                writeBatch(batch);
+            } catch (IOException e) {
+                failure = e;
+            }
+
+            synchronized (lock) {
+                writtenCount += batch.size();
+                if (failure != null && error == null) {
+                    error = failure;
+                }
+                lock.notifyAll();
+            }
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(ArrayList<String> batch) throws IOException {
+        synchronized (lock) {
+            if (error != null) {
+                return;
+            }
+        }
+
+        for (String record : batch) {
+            journal.write(record);
+            if (durability == Durability.PER_COMMAND) {
+                journal.sync();
+            }
+        }
+        if (durability == Durability.PER_BATCH) {
+            journal.sync();
+        } else {
+            journal.flush();
+        }
+
+        if (compactor.isDue(journal)) {
+            compactor.start(journal);
+        }
+    }
+
+    /**
+     * Waits until every record queued before this call has been written, and forced
+     * to disk if the durability policy requires it.
+     *
+     * @throws IOException If a record could not be written
+     */
+    void flush() throws IOException {
+        synchronized (lock) {
+            long target = enqueuedCount;
+            while (writtenCount < target) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while saving tasks", e);
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+        }
+    }
+
+    /**
+     * Writes every queued record and stops the background thread. The writer starts
+     * a new thread if more records are queued afterwards.
+     *
+     * @throws IOException If a record could not be written
+     */
+    void close() throws IOException {
+        flush();
+        Thread current;
+        synchronized (lock) {
+            current = thread;
+            thread = null;
+        }
+        if (current == null) {
+            return;
+        }
+        current.interrupt();
+        try {
+            current.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -23,11 +23,25 @@ public class Deadline extends Task {
     }
 
     /**
-     * Gets the deadline date and time.
+     * Creates a new Deadline task whose description and deadline are decoded from the
+     * given source on first access.
+     *
+     * @param source The source holding the encoded task
+     * @param position The position of the task in the source
+     */
+    public Deadline(TaskSource source, int position) {
+        super(source, position);
+    }
+
+    /**
+     * Gets the deadline date and time, decoding it from the task's source on first access.
      *
      * @return The deadline as a LocalDateTime
      */
     public LocalDateTime getBy() {
+        if (by == null) {
+            by = source.readFirstTime(position);
+        }
         return by;
     }
 
@@ -37,8 +51,8 @@ public class Deadline extends Task {
     }
 
     @Override
-    public String toString() {
-        return "[" + getTaskType().getCode() + "][" + getStatusIcon() + "] " + description + " (by: "
-                + by.format(OUTPUT_FORMATTER) + ")";
+    protected String render() {
+        return "[" + getTaskType().getCode() + "][" + getStatusIcon() + "] " + getDescription() + " (by: "
+                + getBy().format(OUTPUT_FORMATTER) + ")";
     }
 }
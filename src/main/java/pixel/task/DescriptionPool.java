@@ -0,0 +1,64 @@
+package pixel.task;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * Pool of task descriptions, so that tasks with equal descriptions share one string.
+ * The pool only holds its strings weakly, so a description is released once no task
+ * refers to it any more, and the pool grows with the unique descriptions in use
+ * rather than with the number of tasks.
+ *
+ * <p>Tasks are created on several threads when a large file is loaded in parallel, so
+ * the pool is split into stripes chosen by the hash of the description, each with its
+ * own lock. Threads interning different descriptions then rarely wait for each other.
+ */
+public class DescriptionPool {
+    private static final int STRIPE_COUNT = 64;
+    private static final Stripe[] STRIPES = new Stripe[STRIPE_COUNT];
+
+    static {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            STRIPES[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Returns the pooled string equal to the given description, adding the description
+     * to the pool if there is none.
+     */
+    public static String intern(String description) {
+        if (description == null) {
+            return null;
+        }
+        int hash = description.hashCode();
+        Stripe stripe = STRIPES[(hash ^ (hash >>> 16)) & (STRIPE_COUNT - 1)];
+        synchronized (stripe) {
+            WeakReference<String> reference = stripe.strings.get(description);
+            String pooled = reference == null ? null : reference.get();
+            if (pooled != null) {
+                return pooled;
+            }
+            stripe.strings.put(description, new WeakReference<>(description));
+            return description;
+        }
+    }
+
+    /**
+     * Returns the number of descriptions in the pool, including any that are no longer
+     * referenced but have not been released yet.
+     */
+    public static int size() {
+        int size = 0;
+        for (Stripe stripe : STRIPES) {
+            synchronized (stripe) {
+                size += stripe.strings.size();
+            }
+        }
+        return size;
+    }
+
+    private static class Stripe {
+        private final WeakHashMap<String, WeakReference<String>> strings = new WeakHashMap<>();
+    }
+}
@@ -24,17 +24,34 @@ public class Event extends Task {
     }
 
     /**
-     * Gets the start date and time of the event.
+     * Creates a new Event task whose description, start time and end time are decoded
+     * from the given source on first access.
+     *
+     * @param source The source holding the encoded task
+     * @param position The position of the task in the source
+     */
+    public Event(TaskSource source, int position) {
+        super(source, position);
+    }
+
+    /**
+     * Gets the start date and time of the event, decoding it from the task's source on first access.
      */
     public LocalDateTime getFrom() {
+        if (from == null) {
+            from = source.readFirstTime(position);
+        }
         assert from != null : "Event start date/time should never be null after construction";
         return from;
     }
 
     /**
-     * Gets the end date and time of the event.
+     * Gets the end date and time of the event, decoding it from the task's source on first access.
      */
     public LocalDateTime getTo() {
+        if (to == null) {
+            to = source.readSecondTime(position);
+        }
         assert to != null : "Event end date/time should never be null after construction";
         return to;
     }
@@ -45,8 +62,8 @@ public class Event extends Task {
     }
 
     @Override
-    public String toString() {
-        return "[" + getTaskType().getCode() + "][" + getStatusIcon() + "] " + description + " (from: "
-                + from.format(OUTPUT_FORMATTER) + " to: " + to.format(OUTPUT_FORMATTER) + ")";
+    protected String render() {
+        return "[" + getTaskType().getCode() + "][" + getStatusIcon() + "] " + getDescription() + " (from: "
+                + getFrom().format(OUTPUT_FORMATTER) + " to: " + getTo().format(OUTPUT_FORMATTER) + ")";
     }
 }
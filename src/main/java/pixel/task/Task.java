@@ -1,18 +1,49 @@
 package pixel.task;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Abstract base class representing a task.
  */
 public abstract class Task {
+    private static final AtomicLong NEXT_ID = new AtomicLong(1);
+    /** Identifies this task for as long as the application runs, whatever its position in the list. */
+    private final long id = NEXT_ID.getAndIncrement();
     protected String description;
     protected TaskStatus status;
+    /** Source of the fields that are decoded on first access, or null if every field was given. */
+    protected final TaskSource source;
+    /** Position of this task in its source. */
+    protected final int position;
+    /** The line returned by toString, or null until it is rendered for the current status. */
+    private String rendered;
 
     /**
-     * Creates a new Task with the specified description.
+     * Creates a new Task with the specified description, sharing the pooled copy of
+     * the description if another task has an equal one.
      */
     public Task(String description) {
-        this.description = description;
+        this.description = DescriptionPool.intern(description);
         this.status = TaskStatus.NOT_DONE;
+        this.source = null;
+        this.position = 0;
+    }
+
+    /**
+     * Creates a new Task whose fields are decoded from the given source on first access.
+     *
+     * @param source The source holding the encoded task
+     * @param position The position of the task in the source
+     */
+    protected Task(TaskSource source, int position) {
+        assert source != null : "Task source cannot be null";
+        this.status = TaskStatus.NOT_DONE;
+        this.source = source;
+        this.position = position;
+    }
+
+    public long getId() {
+        return id;
     }
 
     /**
@@ -24,22 +55,48 @@ public abstract class Task {
         return status.getIcon();
     }
 
+    /**
+     * Gets the description of the task, decoding it from the task's source on first access.
+     */
     public String getDescription() {
+        // Decoding is idempotent, so a race between threads at worst decodes twice
+        if (description == null) {
+            description = DescriptionPool.intern(source.readDescription(position));
+        }
         return description;
     }
 
     public void markAsDone() {
         this.status = TaskStatus.DONE;
+        this.rendered = null;
     }
 
     public void markAsNotDone() {
         this.status = TaskStatus.NOT_DONE;
+        this.rendered = null;
     }
 
     public abstract TaskType getTaskType();
 
+    /**
+     * Returns the line showing this task to the user. The line is rendered once and
+     * reused until the task is marked as done or not done.
+     */
     @Override
     public String toString() {
-        return "[" + getTaskType().getCode() + "][" + getStatusIcon() + "] " + description;
+        // Rendering is idempotent, so a race between threads at worst renders twice
+        String line = rendered;
+        if (line == null) {
+            line = render();
+            rendered = line;
+        }
+        return line;
+    }
+
+    /**
+     * Renders the line showing this task to the user.
+     */
+    protected String render() {
+        return "[" + getTaskType().getCode() + "][" + getStatusIcon() + "] " + getDescription();
     }
 }
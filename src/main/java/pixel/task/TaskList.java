@@ -0,0 +1,332 @@
+package pixel.task;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * The task list, backed by an order-statistic tree so that finding, inserting or
+ * removing the task at any position takes O(log n) instead of shifting every later
+ * task. Tasks can also be found by their {@link Task#getId() ID}, and the position of
+ * a task is found from its ID in O(log n).
+ *
+ * <p>The tree is a treap ordered by position: every node holds the size of its subtree,
+ * which locates a position from the root, and a link to its parent, which counts the
+ * tasks before a node from the node upwards. Nodes get random priorities and are
+ * rotated so that every parent has a higher priority than its children, which keeps
+ * the expected depth logarithmic.
+ *
+ * <p>Each task is held at most once, and tasks are compared by identity.
+ */
+public class TaskList extends AbstractList<Task> {
+    private final SplittableRandom random = new SplittableRandom();
+    private final HashMap<Long, Node> nodesById = new HashMap<>();
+    private Node root;
+
+    /**
+     * Creates an empty task list.
+     */
+    public TaskList() {
+    }
+
+    /**
+     * Creates a task list holding the given tasks, in order.
+     */
+    public TaskList(Collection<? extends Task> tasks) {
+        addAll(tasks);
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @Override
+    public Task get(int index) {
+        return nodeAt(index).task;
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        Node node = nodeAt(index);
+        Task replaced = node.task;
+        if (replaced != task) {
+            checkNotHeld(task);
+            nodesById.remove(replaced.getId());
+            nodesById.put(task.getId(), node);
+            node.task = task;
+        }
+        return replaced;
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for " + size() + " tasks");
+        }
+        checkNotHeld(task);
+        Node node = new Node(task, random.nextInt());
+        nodesById.put(task.getId(), node);
+        root = insert(root, index, node);
+        root.parent = null;
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Node node = nodeAt(index);
+        removeNode(node);
+        return node.task;
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        nodesById.clear();
+        modCount++;
+    }
+
+    /**
+     * Returns the task with the given ID, or null if it is not in the list.
+     */
+    public Task getById(long id) {
+        Node node = nodesById.get(id);
+        return node == null ? null : node.task;
+    }
+
+    /**
+     * Returns the position of the task with the given ID, or -1 if it is not in the list.
+     */
+    public int indexOfId(long id) {
+        Node node = nodesById.get(id);
+        if (node == null) {
+            return -1;
+        }
+        int index = size(node.left);
+        for (Node child = node; child.parent != null; child = child.parent) {
+            if (child == child.parent.right) {
+                index += size(child.parent.left) + 1;
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public int indexOf(Object object) {
+        if (!(object instanceof Task)) {
+            return -1;
+        }
+        Task task = (Task) object;
+        return getById(task.getId()) == task ? indexOfId(task.getId()) : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object object) {
+        return indexOf(object);
+    }
+
+    @Override
+    public boolean contains(Object object) {
+        return indexOf(object) >= 0;
+    }
+
+    /**
+     * Returns an iterator that walks the tree in order, taking O(1) amortized time per task.
+     */
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<>() {
+            private Node next = first(root);
+            private Node lastReturned;
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Task next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                lastReturned = next;
+                next = successor(next);
+                return lastReturned.task;
+            }
+
+            @Override
+            public void remove() {
+                if (lastReturned == null) {
+                    throw new IllegalStateException();
+                }
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                removeNode(lastReturned);
+                lastReturned = null;
+                expectedModCount = modCount;
+            }
+        };
+    }
+
+    private void checkNotHeld(Task task) {
+        if (nodesById.containsKey(task.getId())) {
+            throw new IllegalArgumentException("Task " + task.getId() + " is already in the list");
+        }
+    }
+
+    private Node nodeAt(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for " + size() + " tasks");
+        }
+        Node node = root;
+        int remaining = index;
+        while (true) {
+            int leftSize = size(node.left);
+            if (remaining < leftSize) {
+                node = node.left;
+            } else if (remaining == leftSize) {
+                return node;
+            } else {
+                remaining -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    private void removeNode(Node node) {
+        nodesById.remove(node.task.getId());
+        Node parent = node.parent;
+        Node replacement = merge(node.left, node.right);
+        if (parent == null) {
+            root = replacement;
+        } else if (parent.left == node) {
+            parent.left = replacement;
+        } else {
+            parent.right = replacement;
+        }
+        if (replacement != null) {
+            replacement.parent = parent;
+        }
+        for (Node ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+            update(ancestor);
+        }
+        modCount++;
+    }
+
+    private static Node insert(Node node, int index, Node added) {
+        if (node == null) {
+            return added;
+        }
+        int leftSize = size(node.left);
+        if (index <= leftSize) {
+            node.left = insert(node.left, index, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, index - leftSize - 1, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * Joins two treaps where every task of the first comes before those of the second.
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    /**
+     * Recomputes the size of the node and points its children back at it.
+     */
+    private static void update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+        if (node.left != null) {
+            node.left.parent = node;
+        }
+        if (node.right != null) {
+            node.right.parent = node;
+        }
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static Node first(Node node) {
+        Node current = node;
+        while (current != null && current.left != null) {
+            current = current.left;
+        }
+        return current;
+    }
+
+    private static Node successor(Node node) {
+        if (node.right != null) {
+            return first(node.right);
+        }
+        Node current = node;
+        while (current.parent != null && current == current.parent.right) {
+            current = current.parent;
+        }
+        return current.parent;
+    }
+
+    private static class Node {
+        private Task task;
+        private final int priority;
+        private int size = 1;
+        private Node left;
+        private Node right;
+        private Node parent;
+
+        Node(Task task, int priority) {
+            this.task = task;
+            this.priority = priority;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package pixel.task;
+
+import java.time.LocalDateTime;
+
+/**
+ * Holds the encoded fields of tasks that are loaded lazily. A task created from a
+ * source decodes each field the first time it is accessed.
+ */
+public interface TaskSource {
+    /**
+     * Decodes the description of the task at the given position.
+     */
+    String readDescription(int position);
+
+    /**
+     * Decodes the first time of the task at the given position: the deadline of a
+     * Deadline or the start of an Event.
+     */
+    LocalDateTime readFirstTime(int position);
+
+    /**
+     * Decodes the second time of the task at the given position: the end of an Event.
+     */
+    LocalDateTime readSecondTime(int position);
+}
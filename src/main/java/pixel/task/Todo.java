@@ -13,6 +13,16 @@ public class Todo extends Task {
         super(description);
     }
 
+    /**
+     * Creates a new Todo task whose description is decoded from the given source on first access.
+     *
+     * @param source The source holding the encoded task
+     * @param position The position of the task in the source
+     */
+    public Todo(TaskSource source, int position) {
+        super(source, position);
+    }
+
     @Override
     public TaskType getTaskType() {
         return TaskType.TODO;
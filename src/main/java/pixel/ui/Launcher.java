@@ -1,12 +1,87 @@
 package pixel.ui;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+
 import javafx.application.Application;
+import pixel.Pixel;
+import pixel.exception.PixelException;
 
 /**
  * A launcher class to workaround classpath issues.
+ *
+ * <p>Run with {@code --batch} to read commands from standard input instead of opening
+ * the window, printing each response and saving the task list once at the end.
+ * {@code --batch=N} also saves after every N commands. The task list is not split
+ * into pages in this mode, and long responses are streamed to standard output.
+ *
+ * <p>Add {@code --sharded} to keep the tasks in monthly segment files instead of one
+ * task file, in either mode.
  */
 public class Launcher {
+    private static final String BATCH_FLAG = "--batch";
+    private static final String SHARDED_FLAG = "--sharded";
+
     public static void main(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith(BATCH_FLAG)) {
+                runBatch(arg, List.of(args));
+                return;
+            }
+        }
         Application.launch(Main.class, args);
     }
+
+    /**
+     * Creates the Pixel instance with the storage chosen by the command-line arguments.
+     */
+    static Pixel createPixel(List<String> args) {
+        return args.contains(SHARDED_FLAG) ? Pixel.withSegments() : new Pixel();
+    }
+
+    private static void runBatch(String flag, List<String> args) {
+        int persistInterval = 0;
+        if (flag.startsWith(BATCH_FLAG + "=")) {
+            try {
+                persistInterval = Integer.parseInt(flag.substring(BATCH_FLAG.length() + 1));
+            } catch (NumberFormatException e) {
+                System.err.println("Usage: " + BATCH_FLAG + "[=<commands between saves>]");
+                System.exit(2);
+            }
+        }
+
+        Pixel pixel = createPixel(args);
+        pixel.setPageSize(0);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+        boolean isFailed = false;
+        try {
+            pixel.runBatch(reader.lines(), persistInterval, out);
+        } catch (PixelException | IOException e) {
+            System.err.println(e.getMessage());
+            isFailed = true;
+        } finally {
+            // The responses written before a failure are still shown
+            try {
+                out.flush();
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+                isFailed = true;
+            }
+            try {
+                pixel.close();
+            } catch (PixelException e) {
+                System.err.println(e.getMessage());
+                isFailed = true;
+            }
+        }
+        if (isFailed) {
+            System.exit(1);
+        }
+    }
 }
@@ -8,13 +8,19 @@ import javafx.scene.Scene;
 import javafx.scene.layout.AnchorPane;
 import javafx.stage.Stage;
 import pixel.Pixel;
+import pixel.exception.PixelException;
 
 /**
  * Entry point for the application.
  */
 public class Main extends Application {
 
-    private final Pixel pixel = new Pixel();
+    private Pixel pixel;
+
+    @Override
+    public void init() {
+        pixel = Launcher.createPixel(getParameters().getRaw());
+    }
 
     @Override
     public void start(Stage stage) {
@@ -32,4 +38,13 @@ public class Main extends Application {
         }
     }
 
+    @Override
+    public void stop() {
+        try {
+            pixel.close();
+        } catch (PixelException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
 }
@@ -1,6 +1,8 @@
 package pixel;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -9,7 +11,12 @@ import java.time.LocalDateTime;
 import org.junit.jupiter.api.Test;
 
 import pixel.exception.PixelException;
+import pixel.parser.CommandRegistry;
+import pixel.parser.DateTimeCodec;
+import pixel.parser.ParsedCommand;
 import pixel.parser.Parser;
+import pixel.parser.SearchQuery;
+import pixel.parser.Tokenizer;
 
 public class ParserTest {
 
@@ -105,4 +112,163 @@ public class ParserTest {
             Parser.parseDateTime("2026-13-01 1200");
         });
     }
+
+    @Test
+    public void tokenize_event_findsEverySpan() {
+        ParsedCommand command = Tokenizer.tokenize("event  team sync /from 2026-03-02 0900 /to 2026-03-02 1000 ",
+                new ParsedCommand());
+        assertEquals("event", command.getVerb());
+        assertEquals("team sync", command.getEventDescription());
+        assertEquals("2026-03-02 0900", command.getFrom());
+        assertEquals("2026-03-02 1000", command.getTo());
+    }
+
+    @Test
+    public void tokenize_reusedCommand_clearsPreviousSpans() {
+        ParsedCommand command = new ParsedCommand();
+        Tokenizer.tokenize("deadline report /by 2026-03-02", command);
+        Tokenizer.tokenize("list", command);
+        assertEquals("list", command.getVerb());
+        assertEquals("", command.getArguments());
+        assertNull(command.getBy());
+        assertNull(command.getDeadlineDescription());
+    }
+
+    @Test
+    public void tokenize_prefixedVerb_findsDescriptions() throws PixelException {
+        ParsedCommand command = Tokenizer.tokenize("dea return book /by 2026-01-01", new ParsedCommand());
+        assertEquals("return book", Parser.parseDeadlineDescription(command));
+        assertEquals(LocalDateTime.of(2026, 1, 1, 23, 59), Parser.parseDeadlineBy(command));
+
+        command = Tokenizer.tokenize("e meeting /from 2026-01-01 /to 2026-01-02", new ParsedCommand());
+        assertEquals("meeting", Parser.parseEventDescription(command));
+        assertEquals(LocalDateTime.of(2026, 1, 2, 23, 59), Parser.parseEventTo(command));
+    }
+
+    @Test
+    public void parseEventFrom_toBeforeFrom_throwsException() {
+        ParsedCommand command = Tokenizer.tokenize("event party /to 2026-03-02 /from 2026-03-01", new ParsedCommand());
+        PixelException e = assertThrows(PixelException.class, () -> Parser.parseEventFrom(command));
+        assertEquals("OOPS!!! An event must include /from and /to.", e.getMessage());
+    }
+
+    @Test
+    public void parseDeadline_emptyParts_throwExceptions() {
+        PixelException e = assertThrows(PixelException.class, () -> Parser.parseDeadlineDescription("deadline /by x"));
+        assertEquals("OOPS!!! The description of a deadline cannot be empty.", e.getMessage());
+        e = assertThrows(PixelException.class, () -> Parser.parseDeadlineBy("deadline report /by   "));
+        assertEquals("OOPS!!! The deadline time cannot be empty.", e.getMessage());
+        e = assertThrows(PixelException.class, () -> Parser.parseDeadlineDescription("deadline report"));
+        assertEquals("OOPS!!! A deadline must include /by.", e.getMessage());
+    }
+
+    @Test
+    public void parseMarkIndex_withSpacesAndSign_success() throws PixelException {
+        assertEquals(2, Parser.parseMarkIndex("mark   +3 "));
+        assertThrows(PixelException.class, () -> Parser.parseMarkIndex("mark 3a"));
+        assertThrows(PixelException.class, () -> Parser.parseMarkIndex("mark"));
+    }
+
+    @Test
+    public void parseDateTime_dayPastEndOfMonth_adjustedAsBefore() throws PixelException {
+        assertEquals(LocalDateTime.of(2026, 2, 28, 23, 59), Parser.parseDateTime("2026-02-30"));
+        assertEquals(LocalDateTime.of(2026, 1, 15, 0, 0), Parser.parseDateTime("2026-01-15 2400"));
+    }
+
+    @Test
+    public void dateTimeCodec_storageFormat_roundTrips() {
+        String text = "| 2026-03-01 0930 |";
+        assertEquals(LocalDateTime.of(2026, 3, 1, 9, 30), DateTimeCodec.parseStorage(text, 2, 17));
+        assertEquals(29_539_290L, DateTimeCodec.parseStorageEpochMinute(text, 2, 17));
+        assertNull(DateTimeCodec.parseStorage("2026-03-01 9:30", 0, 15));
+
+        StringBuilder builder = new StringBuilder("by ");
+        DateTimeCodec.appendStorage(builder, LocalDateTime.of(987, 12, 31, 23, 5));
+        assertEquals("by 0987-12-31 2305", builder.toString());
+    }
+
+    @Test
+    public void searchQuery_allKeywordsIgnoringCase_matches() {
+        SearchQuery query = SearchQuery.compile("  Book\tRET ");
+        assertTrue(query.matches("Return the BOOK"));
+        assertFalse(query.matches("return the pen"));
+        assertTrue(SearchQuery.compile("").matches("anything"));
+        assertTrue(SearchQuery.compile("CAF\u00c9").matches("Caf\u00e9 meeting"));
+    }
+
+    @Test
+    public void parseBetween_datesWithAndWithoutTimes_success() throws PixelException {
+        ParsedCommand command = Tokenizer.tokenize("between 2026-01-15 2026-01-20 1800", new ParsedCommand());
+        assertEquals(LocalDateTime.of(2026, 1, 15, 0, 0), Parser.parseBetweenFrom(command));
+        assertEquals(LocalDateTime.of(2026, 1, 20, 18, 0), Parser.parseBetweenTo(command));
+
+        Tokenizer.tokenize("between 2026-01-15 0900 2026-01-20", command);
+        assertEquals(LocalDateTime.of(2026, 1, 15, 9, 0), Parser.parseBetweenFrom(command));
+        assertEquals(LocalDateTime.of(2026, 1, 20, 23, 59), Parser.parseBetweenTo(command));
+
+        assertThrows(PixelException.class, () ->
+                Parser.parseBetweenFrom(Tokenizer.tokenize("between 2026-01-15", new ParsedCommand())));
+    }
+
+    @Test
+    public void parseFindLimit_trailingOption_splitsKeywordAndLimit() throws PixelException {
+        ParsedCommand command = Tokenizer.tokenize("find read book --limit 50", new ParsedCommand());
+        assertEquals("read book", Parser.parseFindKeyword(command));
+        assertEquals(50, Parser.parseFindLimit(command));
+
+        command = Tokenizer.tokenize("find --limitless", new ParsedCommand());
+        assertEquals("--limitless", Parser.parseFindKeyword(command));
+        assertEquals(0, Parser.parseFindLimit(command));
+
+        assertThrows(PixelException.class, () ->
+                Parser.parseFindLimit(Tokenizer.tokenize("find book --limit 0", new ParsedCommand())));
+        assertThrows(PixelException.class, () ->
+                Parser.parseFindKeyword(Tokenizer.tokenize("find --limit 5", new ParsedCommand())));
+    }
+
+    @Test
+    public void parseListPage_withAndWithoutPage_success() throws PixelException {
+        assertEquals(1, Parser.parseListPage(Tokenizer.tokenize("list", new ParsedCommand())));
+        assertEquals(3, Parser.parseListPage(Tokenizer.tokenize("list page 3", new ParsedCommand())));
+        assertThrows(PixelException.class, () ->
+                Parser.parseListPage(Tokenizer.tokenize("list page -1", new ParsedCommand())));
+        assertThrows(PixelException.class, () ->
+                Parser.parseListPage(Tokenizer.tokenize("list 3", new ParsedCommand())));
+    }
+
+    @Test
+    public void commandRegistry_uniquePrefix_dispatchesToVerb() throws PixelException {
+        CommandRegistry registry = createRegistry();
+        assertEquals("list", registry.dispatch(Tokenizer.tokenize("l", new ParsedCommand())));
+        assertEquals("deadline", registry.dispatch(Tokenizer.tokenize("dea return book /by 2026-01-15",
+                new ParsedCommand())));
+        assertEquals("delete", registry.dispatch(Tokenizer.tokenize("del 2", new ParsedCommand())));
+    }
+
+    @Test
+    public void commandRegistry_ambiguousPrefix_listsCandidates() {
+        CommandRegistry registry = createRegistry();
+        PixelException e = assertThrows(PixelException.class, () ->
+                registry.dispatch(Tokenizer.tokenize("de 2", new ParsedCommand())));
+        assertTrue(e.getMessage().contains("deadline, delete"));
+    }
+
+    @Test
+    public void commandRegistry_exactVerb_winsOverLongerVerb() throws PixelException {
+        CommandRegistry registry = createRegistry();
+        registry.register("listall", command -> "listall");
+        assertEquals("list", registry.dispatch(Tokenizer.tokenize("list", new ParsedCommand())));
+        assertEquals("listall", registry.dispatch(Tokenizer.tokenize("lista", new ParsedCommand())));
+        PixelException e = assertThrows(PixelException.class, () ->
+                registry.dispatch(Tokenizer.tokenize("blah", new ParsedCommand())));
+        assertEquals("OOPS!!! I'm sorry, but I don't know what that means :-(", e.getMessage());
+    }
+
+    private static CommandRegistry createRegistry() {
+        CommandRegistry registry = new CommandRegistry();
+        for (String verb : new String[] {"list", "deadline", "delete", "todo"}) {
+            registry.register(verb, command -> verb);
+        }
+        return registry;
+    }
 }
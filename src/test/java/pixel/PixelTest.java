@@ -1,13 +1,224 @@
 package pixel;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import pixel.exception.PixelException;
+import pixel.storage.ShardedStorage;
+import pixel.storage.Storage;
+import pixel.storage.StorageMode;
+import pixel.task.Task;
 
 public class PixelTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void runBatch_savesOnceAtEnd_respondsInOrder() throws PixelException {
+        CountingStorage storage = new CountingStorage(tempDir.resolve("tasks.txt").toString());
+        Pixel pixel = new Pixel(storage);
+
+        List<String> responses = pixel.runBatch(Stream.of("todo read book", "todo write essay", "mark 1",
+                "delete 2", "list"), 0);
+
+        assertEquals(5, responses.size());
+        assertTrue(responses.get(0).contains("read book"));
+        assertTrue(responses.get(4).contains("[X] read book"));
+        assertEquals(1, storage.saveCount);
+        ArrayList<Task> loaded = new Storage(tempDir.resolve("tasks.txt").toString()).load();
+        assertEquals(1, loaded.size());
+        assertEquals("[T][X] read book", loaded.get(0).toString());
+    }
+
+    @Test
+    public void runBatch_withInterval_savesEveryIntervalAndStopsAtBye() throws PixelException {
+        CountingStorage storage = new CountingStorage(tempDir.resolve("tasks.txt").toString());
+        Pixel pixel = new Pixel(storage);
+
+        List<String> responses = pixel.runBatch(Stream.of("todo a", "todo b", "todo c", "todo d", "todo e",
+                "bye", "todo f"), 2);
+
+        assertEquals(6, responses.size());
+        assertEquals(3, storage.saveCount);
+        assertEquals(5, new Storage(tempDir.resolve("tasks.txt").toString()).load().size());
+    }
+
+    @Test
+    public void runBatch_outputFails_savesCommandsThatRan() throws PixelException {
+        CountingStorage storage = new CountingStorage(tempDir.resolve("tasks.txt").toString());
+        Pixel pixel = new Pixel(storage);
+        StringBuilder written = new StringBuilder();
+        Appendable out = new Appendable() {
+            @Override
+            public Appendable append(CharSequence csq) throws IOException {
+                return append(csq, 0, csq.length());
+            }
+
+            @Override
+            public Appendable append(CharSequence csq, int start, int end) throws IOException {
+                written.append(csq, start, end);
+                if (written.indexOf("write essay") >= 0) {
+                    throw new IOException("Broken pipe");
+                }
+                return this;
+            }
+
+            @Override
+            public Appendable append(char c) throws IOException {
+                return append(String.valueOf(c));
+            }
+        };
+
+        IOException e = assertThrows(IOException.class, () -> pixel.runBatch(Stream.of("todo read book",
+                "todo write essay", "todo take nap"), 0, out));
+
+        assertEquals("Broken pipe", e.getMessage());
+        assertEquals(1, storage.saveCount);
+        assertEquals(2, new Storage(tempDir.resolve("tasks.txt").toString()).load().size());
+    }
+
+    @Test
+    public void close_storageFails_reportsFailure() {
+        Pixel pixel = new Pixel(new Storage(tempDir.resolve("tasks.txt").toString(), StorageMode.SNAPSHOT) {
+            @Override
+            public void close() throws PixelException {
+                throw new PixelException("Error closing storage: disk full");
+            }
+        });
+
+        PixelException e = assertThrows(PixelException.class, pixel::close);
+        assertEquals("Error closing storage: disk full", e.getMessage());
+    }
+
+    @Test
+    public void getResponse_duplicateIgnoringCase_asksOnceAndForgetsDeleted() {
+        Pixel pixel = new Pixel(new Storage(tempDir.resolve("tasks.txt").toString(), StorageMode.SNAPSHOT));
+        pixel.getResponse("deadline Return Book /by 2026-01-15");
+        pixel.getResponse("todo return book");
+
+        assertTrue(pixel.getResponse("deadline return BOOK /by 2026-01-15").startsWith("This task already exists"));
+        assertEquals("Okay, I won't add the duplicate task.", pixel.getResponse("N"));
+        assertTrue(pixel.getResponse("deadline return book /by 2026-01-16").contains("Got it"));
+
+        pixel.getResponse("delete 1");
+        assertTrue(pixel.getResponse("deadline return book /by 2026-01-15").contains("Got it"));
+    }
+
+    @Test
+    public void getResponse_confirmedDuplicateEvent_warnsOfOverlap() {
+        Pixel pixel = new Pixel(new Storage(tempDir.resolve("tasks.txt").toString(), StorageMode.SNAPSHOT));
+        pixel.getResponse("event standup /from 2026-01-15 0900 /to 2026-01-15 0930");
+        pixel.getResponse("event standup /from 2026-01-15 0900 /to 2026-01-15 0930");
+
+        String response = pixel.getResponse("Y");
+        assertTrue(response.contains("Now you have 2 tasks"));
+        assertTrue(response.contains("Heads up! This event overlaps with:\n1.[E][ ] standup"));
+    }
+
+    @Test
+    public void getResponse_prefixedDeadlineAndEvent_addsTasks() {
+        Pixel pixel = new Pixel(new Storage(tempDir.resolve("tasks.txt").toString(), StorageMode.SNAPSHOT));
+
+        assertTrue(pixel.getResponse("dea y /by 2026-01-01").contains("[D][ ] y (by: Jan 01 2026 23:59)"));
+        assertTrue(pixel.getResponse("e meeting /from 2026-01-01 /to 2026-01-02").contains("[E][ ] meeting"));
+    }
+
+    @Test
+    public void getResponse_longList_showsRequestedPage() {
+        Pixel pixel = new Pixel(new Storage(tempDir.resolve("tasks.txt").toString(), StorageMode.SNAPSHOT));
+        pixel.setPageSize(2);
+        for (int i = 1; i <= 5; i++) {
+            pixel.getResponse("todo task " + i);
+        }
+
+        assertEquals("Here are the tasks in your list:\n1.[T][ ] task 1\n2.[T][ ] task 2\n"
+                + "Showing tasks 1-2 of 5 (page 1 of 3). Type \"list page 2\" for more.", pixel.getResponse("list"));
+        assertEquals("Here are the tasks in your list:\n5.[T][ ] task 5\nShowing tasks 5-5 of 5 (page 3 of 3).",
+                pixel.getResponse("list page 3"));
+        assertEquals("OOPS!!! Your list only has 3 pages.", pixel.getResponse("list page 4"));
+        assertEquals("Here are the matching tasks in your list:\n1.[T][ ] task 1\n2.[T][ ] task 2\n"
+                + "Showing the first 2 of 5 matching tasks.", pixel.getResponse("find task --limit 2"));
+    }
+
     @Test
-    public void test() {
-        assertEquals(1, 1);
+    public void runBatch_toWriter_streamsSameResponses() throws PixelException, IOException {
+        Pixel pixel = new Pixel(new Storage(tempDir.resolve("tasks.txt").toString(), StorageMode.SNAPSHOT));
+        pixel.setPageSize(0);
+        StringWriter out = new StringWriter();
+
+        pixel.runBatch(Stream.of("todo read book", "todo write essay", "list", "find essay"), 0, out);
+
+        String separator = System.lineSeparator();
+        assertTrue(out.toString().contains("Here are the tasks in your list:\n1.[T][ ] read book\n"
+                + "2.[T][ ] write essay" + separator));
+        assertTrue(out.toString().endsWith("Here are the matching tasks in your list:\n1.[T][ ] write essay"
+                + separator));
+    }
+
+    @Test
+    public void getResponse_shardedStorage_datedQueriesSkipFullLoad() throws PixelException {
+        String directory = tempDir.resolve("segments").toString();
+        Pixel writer = new Pixel(new ShardedStorage(directory));
+        writer.getResponse("deadline pay rent /by 2026-01-31");
+        writer.getResponse("deadline file taxes /by 2026-03-15");
+        writer.getResponse("event trip /from 2026-01-30 0900 /to 2026-02-02 1800");
+        writer.getResponse("todo read book");
+        writer.close();
+
+        FullLoadCountingStorage storage = new FullLoadCountingStorage(directory);
+        Pixel pixel = new Pixel(storage);
+        String due = pixel.getResponse("due 2026-02-28");
+        assertTrue(due.contains("pay rent") && !due.contains("file taxes"));
+        assertTrue(pixel.getResponse("on 2026-02-01").contains("trip"));
+        assertEquals(0, storage.loadCount);
+
+        assertTrue(pixel.getResponse("list").contains("4.[T][ ] read book"));
+        assertEquals(1, storage.loadCount);
     }
 
+    /**
+     * Sharded storage that counts how often the whole list is loaded.
+     */
+    private static class FullLoadCountingStorage extends ShardedStorage {
+        private int loadCount = 0;
+
+        FullLoadCountingStorage(String directoryPath) {
+            super(directoryPath);
+        }
+
+        @Override
+        public ArrayList<Task> load() throws PixelException {
+            loadCount++;
+            return super.load();
+        }
+    }
+
+    /**
+     * Snapshot storage that counts how often the whole list is saved.
+     */
+    private static class CountingStorage extends Storage {
+        private int saveCount = 0;
+
+        CountingStorage(String filePath) {
+            super(filePath, StorageMode.SNAPSHOT);
+        }
+
+        @Override
+        public void save(List<Task> tasks) throws PixelException {
+            saveCount++;
+            super.save(tasks);
+        }
+    }
 }
@@ -0,0 +1,100 @@
+package pixel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import pixel.exception.PixelException;
+import pixel.storage.ShardedStorage;
+import pixel.task.Deadline;
+import pixel.task.Event;
+import pixel.task.Task;
+import pixel.task.TaskType;
+import pixel.task.Todo;
+
+public class ShardedStorageTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ShardedStorage storage;
+    private ArrayList<Task> tasks;
+
+    @BeforeEach
+    public void setUp() throws PixelException {
+        storage = new ShardedStorage(tempDir.toString());
+        tasks = storage.load();
+        add(new Deadline("june report", LocalDateTime.of(2026, 6, 15, 18, 0)));
+        add(new Todo("read book"));
+        add(new Event("july trip", LocalDateTime.of(2026, 7, 1, 9, 0), LocalDateTime.of(2026, 7, 3, 18, 0)));
+        add(new Deadline("july report", LocalDateTime.of(2026, 7, 15, 18, 0)));
+    }
+
+    private void add(Task task) throws PixelException {
+        tasks.add(task);
+        storage.recordAdd(tasks, task);
+    }
+
+    @Test
+    public void load_tasksInSeveralSegments_preservesListOrder() throws PixelException {
+        assertTrue(Files.exists(tempDir.resolve("todo.txt")));
+        assertTrue(Files.exists(tempDir.resolve("deadline-2026-06.txt")));
+        assertTrue(Files.exists(tempDir.resolve("deadline-2026-07.txt")));
+        assertTrue(Files.exists(tempDir.resolve("event-2026-07.txt")));
+
+        ArrayList<Task> loadedTasks = new ShardedStorage(tempDir.toString()).load();
+        assertEquals(4, loadedTasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).toString(), loadedTasks.get(i).toString());
+        }
+    }
+
+    @Test
+    public void recordMark_rewritesOnlyDirtySegment() throws PixelException, IOException {
+        Path otherSegment = tempDir.resolve("deadline-2026-06.txt");
+        FileTime untouched = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(otherSegment, untouched);
+
+        tasks.get(1).markAsDone();
+        storage.recordMark(tasks, 1);
+
+        assertEquals(untouched, Files.getLastModifiedTime(otherSegment));
+        assertEquals("[T][X] read book", new ShardedStorage(tempDir.toString()).load().get(1).toString());
+    }
+
+    @Test
+    public void recordDelete_lastTaskInSegment_removesSegmentFile() throws PixelException {
+        tasks.remove(2);
+        storage.recordDelete(tasks, 2);
+        tasks.add(new Todo("call mum"));
+        storage.recordAdd(tasks, tasks.get(3));
+
+        assertFalse(Files.exists(tempDir.resolve("event-2026-07.txt")));
+        ArrayList<Task> loadedTasks = new ShardedStorage(tempDir.toString()).load();
+        assertEquals(4, loadedTasks.size());
+        assertEquals("july report", loadedTasks.get(2).getDescription());
+        assertEquals("call mum", loadedTasks.get(3).getDescription());
+    }
+
+    @Test
+    public void loadRange_readsOnlyMatchingSegments() throws PixelException, IOException {
+        Files.writeString(tempDir.resolve("deadline-2026-06.txt"), "not a task");
+
+        ShardedStorage reopened = new ShardedStorage(tempDir.toString());
+        ArrayList<Task> july = reopened.load(TaskType.DEADLINE, YearMonth.of(2026, 7), YearMonth.of(2026, 12));
+        assertEquals(1, july.size());
+        assertEquals("july report", july.get(0).getDescription());
+    }
+}
@@ -1,19 +1,29 @@
 package pixel;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import pixel.exception.PixelException;
+import pixel.storage.Durability;
+import pixel.storage.SnapshotFormat;
 import pixel.storage.Storage;
+import pixel.storage.StorageMode;
 import pixel.task.Deadline;
 import pixel.task.Event;
 import pixel.task.Task;
@@ -42,6 +52,17 @@ public class StorageTest {
         assertEquals(0, loadedTasks.size());
     }
 
+    @Test
+    public void load_repeatedDescriptions_shareOneString() throws IOException, PixelException {
+        Files.write(testFilePath, Arrays.asList("T | 0 | standup", "D | 1 | standup | 2026-01-15 0900",
+                "T | 0 | Standup"));
+
+        ArrayList<Task> loadedTasks = storage.load();
+        assertTrue(loadedTasks.get(0).getDescription() == loadedTasks.get(1).getDescription());
+        assertTrue(new Todo(new String("standup")).getDescription() == loadedTasks.get(0).getDescription());
+        assertEquals("Standup", loadedTasks.get(2).getDescription());
+    }
+
     @Test
     public void saveAndLoad_singleTodo_success() throws PixelException {
         ArrayList<Task> tasks = new ArrayList<>();
@@ -172,4 +193,461 @@ public class StorageTest {
         assertTrue(loadedTasks.get(1).toString().contains("second"));
         assertTrue(loadedTasks.get(2).toString().contains("third"));
     }
+
+    @Test
+    public void journal_addMarkDelete_replayedOnLoad() throws PixelException {
+        Storage journaled = new Storage(testFilePath.toString(), StorageMode.JOURNAL);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("first"));
+        journaled.recordAdd(tasks, tasks.get(0));
+        tasks.add(new Deadline("second", LocalDateTime.of(2026, 3, 15, 10, 30)));
+        journaled.recordAdd(tasks, tasks.get(1));
+        tasks.get(1).markAsDone();
+        journaled.recordMark(tasks, 1);
+        tasks.remove(0);
+        journaled.recordDelete(tasks, 0);
+        journaled.close();
+
+        ArrayList<Task> loadedTasks = new Storage(testFilePath.toString(), StorageMode.JOURNAL).load();
+        assertEquals(1, loadedTasks.size());
+        assertEquals("[D][X] second (by: Mar 15 2026 10:30)", loadedTasks.get(0).toString());
+    }
+
+    @Test
+    public void journal_appliedOnTopOfSnapshot() throws PixelException {
+        Storage journaled = new Storage(testFilePath.toString(), StorageMode.JOURNAL);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("from snapshot"));
+        journaled.save(tasks);
+        tasks.add(new Todo("from journal"));
+        journaled.recordAdd(tasks, tasks.get(1));
+        tasks.get(0).markAsDone();
+        journaled.recordMark(tasks, 0);
+        journaled.close();
+
+        ArrayList<Task> loadedTasks = new Storage(testFilePath.toString(), StorageMode.JOURNAL).load();
+        assertEquals(2, loadedTasks.size());
+        assertEquals("[T][X] from snapshot", loadedTasks.get(0).toString());
+        assertEquals("[T][ ] from journal", loadedTasks.get(1).toString());
+    }
+
+    @Test
+    public void compact_foldsJournalIntoSnapshot() throws PixelException, IOException {
+        Storage journaled = new Storage(testFilePath.toString(), StorageMode.JOURNAL);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("first"));
+        journaled.recordAdd(tasks, tasks.get(0));
+        tasks.add(new Todo("second"));
+        journaled.recordAdd(tasks, tasks.get(1));
+        journaled.compact();
+        tasks.get(0).markAsDone();
+        journaled.recordMark(tasks, 0);
+        journaled.close();
+
+        assertEquals(2, Files.readAllLines(testFilePath).size());
+        assertFalse(Files.exists(tempDir.resolve("test_pixel.txt.journal.compacting")));
+
+        ArrayList<Task> loadedTasks = new Storage(testFilePath.toString(), StorageMode.JOURNAL).load();
+        assertEquals(2, loadedTasks.size());
+        assertEquals("[T][X] first", loadedTasks.get(0).toString());
+        assertEquals("[T][ ] second", loadedTasks.get(1).toString());
+    }
+
+    @Test
+    public void load_interruptedCompaction_recoversWithoutDuplicates() throws PixelException, IOException {
+        Files.writeString(testFilePath, "T | 0 | old" + System.lineSeparator());
+        Files.writeString(tempDir.resolve("test_pixel.txt.compacted"),
+                "T | 0 | old" + System.lineSeparator() + "T | 0 | compacted" + System.lineSeparator());
+        Files.writeString(tempDir.resolve("test_pixel.txt.journal.compacting"),
+                "ADD | T | 0 | compacted" + System.lineSeparator());
+        Files.writeString(tempDir.resolve("test_pixel.txt.journal"),
+                "ADD | T | 0 | newest" + System.lineSeparator());
+
+        ArrayList<Task> loadedTasks = new Storage(testFilePath.toString(), StorageMode.JOURNAL).load();
+        assertEquals(3, loadedTasks.size());
+        assertEquals("[T][ ] compacted", loadedTasks.get(1).toString());
+        assertEquals("[T][ ] newest", loadedTasks.get(2).toString());
+    }
+
+    @Test
+    public void writeBehind_flush_persistsEveryQueuedMutation() throws PixelException {
+        Storage writeBehind = new Storage(testFilePath.toString(), StorageMode.WRITE_BEHIND, Durability.PER_BATCH);
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(new Todo("task " + i));
+            writeBehind.recordAdd(tasks, tasks.get(i));
+        }
+        tasks.get(99).markAsDone();
+        writeBehind.recordMark(tasks, 99);
+        writeBehind.flush();
+
+        ArrayList<Task> loadedTasks = new Storage(testFilePath.toString(), StorageMode.JOURNAL).load();
+        assertEquals(100, loadedTasks.size());
+        assertEquals("[T][X] task 99", loadedTasks.get(99).toString());
+        writeBehind.close();
+    }
+
+    @Test
+    public void binaryFormat_saveAndLoad_preservesTasks() throws PixelException {
+        Storage binary = new Storage(testFilePath.toString(), StorageMode.SNAPSHOT, Durability.NONE,
+                SnapshotFormat.BINARY);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("caf\u00e9 & b\u00e4ckerei"));
+        tasks.add(new Deadline("second", LocalDateTime.of(2026, 3, 15, 10, 30)));
+        tasks.add(new Event("third", LocalDateTime.of(2026, 4, 1, 9, 0), LocalDateTime.of(2026, 4, 1, 17, 0)));
+        tasks.get(1).markAsDone();
+        binary.save(tasks);
+
+        ArrayList<Task> loadedTasks = binary.load();
+        assertEquals(3, loadedTasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).toString(), loadedTasks.get(i).toString());
+        }
+    }
+
+    @Test
+    public void binaryFormat_lazyLoading_decodesSameTasks() throws PixelException {
+        Storage binary = new Storage(testFilePath.toString(), StorageMode.SNAPSHOT, Durability.NONE,
+                SnapshotFormat.BINARY);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("read book"));
+        tasks.add(new Deadline("return book", LocalDateTime.of(2026, 6, 15, 18, 0)));
+        tasks.add(new Event("team meeting", LocalDateTime.of(2026, 6, 16, 9, 0),
+                LocalDateTime.of(2026, 6, 16, 10, 30)));
+        tasks.get(1).markAsDone();
+        binary.save(tasks);
+
+        binary.setLazyLoading(true);
+        ArrayList<Task> loadedTasks = binary.load();
+        assertEquals(3, loadedTasks.size());
+        assertEquals(LocalDateTime.of(2026, 6, 16, 10, 30), ((Event) loadedTasks.get(2)).getTo());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).toString(), loadedTasks.get(i).toString());
+        }
+
+        loadedTasks.remove(0);
+        binary.save(loadedTasks);
+        assertEquals("[D][X] return book (by: Jun 15 2026 18:00)", binary.load().get(0).toString());
+    }
+
+    @Test
+    public void binaryFormat_textFile_throwsException() throws PixelException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("plain text"));
+        storage.save(tasks);
+
+        Storage binary = new Storage(testFilePath.toString(), StorageMode.SNAPSHOT, Durability.NONE,
+                SnapshotFormat.BINARY);
+        assertThrows(PixelException.class, binary::load);
+    }
+
+    @Test
+    public void binaryFormat_importAndExportText_roundTrips() throws PixelException {
+        Storage binary = new Storage(testFilePath.toString(), StorageMode.SNAPSHOT, Durability.NONE,
+                SnapshotFormat.BINARY);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Deadline("export me", LocalDateTime.of(2026, 6, 15, 18, 0)));
+        String textPath = tempDir.resolve("export.txt").toString();
+        binary.exportText(textPath, tasks);
+
+        assertEquals(1, new Storage(textPath).load().size());
+        ArrayList<Task> imported = binary.importText(textPath);
+        assertEquals("[D][ ] export me (by: Jun 15 2026 18:00)", imported.get(0).toString());
+    }
+
+    @Test
+    public void compressedFormat_saveAndLoad_preservesTasksInLessSpace() throws PixelException, IOException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            tasks.add(new Deadline("submit weekly report " + i, LocalDateTime.of(2026, 6, 15, 18, 0).plusDays(i)));
+        }
+        tasks.get(1234).markAsDone();
+        storage.save(tasks);
+        long textSize = Files.size(testFilePath);
+
+        Storage compressed = new Storage(testFilePath.toString(), StorageMode.SNAPSHOT, Durability.NONE,
+                SnapshotFormat.COMPRESSED);
+        compressed.save(tasks);
+        assertTrue(Files.size(testFilePath) * 4 < textSize);
+
+        ArrayList<Task> loadedTasks = compressed.load();
+        assertEquals(5000, loadedTasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).toString(), loadedTasks.get(i).toString());
+        }
+    }
+
+    @Test
+    public void compressedFormat_loadRange_decodesRequestedTasks() throws PixelException, IOException {
+        Storage compressed = new Storage(testFilePath.toString(), StorageMode.SNAPSHOT, Durability.NONE,
+                SnapshotFormat.COMPRESSED);
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        compressed.save(tasks);
+
+        ArrayList<Task> range = compressed.loadRange(1020, 10);
+        assertEquals(10, range.size());
+        assertEquals("task 1020", range.get(0).getDescription());
+        assertEquals("task 1029", range.get(9).getDescription());
+        assertEquals(0, compressed.loadRange(3000, 10).size());
+
+        // Cutting the file loses the index and the last block, but not the earlier blocks
+        byte[] content = Files.readAllBytes(testFilePath);
+        Files.write(testFilePath, Arrays.copyOf(content, content.length - 100));
+        assertEquals(2048, compressed.load().size());
+        assertEquals("task 2047", compressed.loadRange(2040, 100).get(7).getDescription());
+    }
+
+    @Test
+    public void load_largeTextFile_preservesOrderAndSkipsMalformedLines() throws PixelException, IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 60_000; i++) {
+            content.append("T | 0 | task ").append(i).append(System.lineSeparator());
+            if (i % 1000 == 0) {
+                content.append("D | 0 | broken | not a date").append(System.lineSeparator());
+            }
+        }
+        Files.writeString(testFilePath, content);
+
+        ArrayList<Task> loadedTasks = storage.load();
+        assertEquals(60_000, loadedTasks.size());
+        for (int i = 0; i < loadedTasks.size(); i++) {
+            assertEquals("task " + i, loadedTasks.get(i).getDescription());
+        }
+    }
+
+    @Test
+    public void inPlace_markAndDelete_rewriteOnlyTheirRecords() throws PixelException, IOException {
+        Storage inPlace = new Storage(testFilePath.toString(), StorageMode.IN_PLACE);
+        ArrayList<Task> tasks = inPlace.load();
+        tasks.add(new Todo("first"));
+        inPlace.recordAdd(tasks, tasks.get(0));
+        tasks.add(new Event("second", LocalDateTime.of(2026, 4, 1, 9, 0), LocalDateTime.of(2026, 4, 1, 17, 0)));
+        inPlace.recordAdd(tasks, tasks.get(1));
+        tasks.add(new Todo("third"));
+        inPlace.recordAdd(tasks, tasks.get(2));
+        long size = Files.size(testFilePath);
+
+        tasks.get(1).markAsDone();
+        inPlace.recordMark(tasks, 1);
+        tasks.remove(0);
+        inPlace.recordDelete(tasks, 0);
+        tasks.get(1).markAsDone();
+        inPlace.recordMark(tasks, 1);
+        inPlace.close();
+        assertEquals(size, Files.size(testFilePath));
+
+        ArrayList<Task> loadedTasks = new Storage(testFilePath.toString(), StorageMode.IN_PLACE).load();
+        assertEquals(2, loadedTasks.size());
+        assertEquals("[E][X] second (from: Apr 01 2026 09:00 to: Apr 01 2026 17:00)", loadedTasks.get(0).toString());
+        assertEquals("[T][X] third", loadedTasks.get(1).toString());
+    }
+
+    @Test
+    public void inPlace_randomDeletesAndMarks_matchTaskList() throws PixelException {
+        Storage inPlace = new Storage(testFilePath.toString(), StorageMode.IN_PLACE, Durability.NONE,
+                SnapshotFormat.TEXT);
+        ArrayList<Task> tasks = inPlace.load();
+        Random random = new Random(42);
+        for (int i = 0; i < 300; i++) {
+            if (tasks.isEmpty() || random.nextInt(3) > 0) {
+                tasks.add(new Todo("task " + i));
+                inPlace.recordAdd(tasks, tasks.get(tasks.size() - 1));
+            } else if (random.nextBoolean()) {
+                int index = random.nextInt(tasks.size());
+                tasks.remove(index);
+                inPlace.recordDelete(tasks, index);
+            } else {
+                int index = random.nextInt(tasks.size());
+                tasks.get(index).markAsDone();
+                inPlace.recordMark(tasks, index);
+            }
+        }
+        inPlace.close();
+
+        Storage reopened = new Storage(testFilePath.toString(), StorageMode.IN_PLACE, Durability.NONE,
+                SnapshotFormat.TEXT);
+        ArrayList<Task> loadedTasks = reopened.load();
+        assertEquals(tasks.toString(), loadedTasks.toString());
+        loadedTasks.remove(loadedTasks.size() / 2);
+        reopened.recordDelete(loadedTasks, tasks.size() / 2);
+        tasks.remove(tasks.size() / 2);
+        loadedTasks.get(0).markAsDone();
+        reopened.recordMark(loadedTasks, 0);
+        tasks.get(0).markAsDone();
+        reopened.close();
+        assertEquals(tasks.toString(), new Storage(testFilePath.toString(), StorageMode.IN_PLACE).load().toString());
+    }
+
+    @Test
+    public void inPlace_save_reclaimsTombstones() throws PixelException, IOException {
+        Storage inPlace = new Storage(testFilePath.toString(), StorageMode.IN_PLACE);
+        ArrayList<Task> tasks = inPlace.load();
+        for (int i = 0; i < 10; i++) {
+            tasks.add(new Todo("task " + i));
+            inPlace.recordAdd(tasks, tasks.get(i));
+        }
+        for (int i = 0; i < 5; i++) {
+            tasks.remove(0);
+            inPlace.recordDelete(tasks, 0);
+        }
+        long sizeWithTombstones = Files.size(testFilePath);
+        inPlace.save(tasks);
+        assertTrue(Files.size(testFilePath) < sizeWithTombstones);
+
+        tasks.get(4).markAsDone();
+        inPlace.recordMark(tasks, 4);
+        inPlace.close();
+
+        ArrayList<Task> loadedTasks = new Storage(testFilePath.toString(), StorageMode.IN_PLACE).load();
+        assertEquals(5, loadedTasks.size());
+        assertEquals("[T][ ] task 5", loadedTasks.get(0).toString());
+        assertEquals("[T][X] task 9", loadedTasks.get(4).toString());
+    }
+
+    @Test
+    public void checkedText_saveAndLoad_preservesTasksWithoutTempFile() throws PixelException, IOException {
+        Storage checked = new Storage(testFilePath.toString(), StorageMode.SNAPSHOT, Durability.NONE,
+                SnapshotFormat.CHECKED_TEXT);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("read book"));
+        tasks.add(new Deadline("submit report", LocalDateTime.of(2026, 5, 1, 12, 0)));
+        checked.save(tasks);
+
+        assertFalse(Files.exists(tempDir.resolve("test_pixel.txt.tmp")));
+        ArrayList<Task> loadedTasks = checked.load();
+        assertEquals(2, loadedTasks.size());
+        assertEquals("[D][ ] submit report (by: May 01 2026 12:00)", loadedTasks.get(1).toString());
+        assertNull(checked.getRecoveryReport());
+    }
+
+    @Test
+    public void checkedText_corruptRecord_salvagesPrefixAndReportsLine() throws PixelException, IOException {
+        Storage checked = new Storage(testFilePath.toString(), StorageMode.SNAPSHOT, Durability.NONE,
+                SnapshotFormat.CHECKED_TEXT);
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        checked.save(tasks);
+        String content = Files.readString(testFilePath);
+        Files.writeString(testFilePath, content.replace("task 3", "tusk 3"));
+
+        ArrayList<Task> loadedTasks = checked.load();
+        assertEquals(3, loadedTasks.size());
+        assertNotNull(checked.getRecoveryReport());
+        assertEquals(5, checked.getRecoveryReport().getLineNumber());
+        assertEquals(3, checked.getRecoveryReport().getSalvagedCount());
+        assertEquals(content.replace("task 3", "tusk 3"),
+                Files.readString(Path.of(checked.getRecoveryReport().getBackupPath())));
+    }
+
+    @Test
+    public void checkedText_corruptRecordWithJournal_setsJournalAside() throws PixelException, IOException {
+        Storage checked = new Storage(testFilePath.toString(), StorageMode.JOURNAL, Durability.NONE,
+                SnapshotFormat.CHECKED_TEXT);
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        checked.save(tasks);
+        tasks.get(4).markAsDone();
+        checked.recordMark(tasks, 4);
+        tasks.remove(1);
+        checked.recordDelete(tasks, 1);
+        tasks.add(new Todo("task 5"));
+        checked.recordAdd(tasks, tasks.get(4));
+        checked.close();
+        Files.writeString(testFilePath, Files.readString(testFilePath).replace("task 2", "tusk 2"));
+
+        Storage reopened = new Storage(testFilePath.toString(), StorageMode.JOURNAL, Durability.NONE,
+                SnapshotFormat.CHECKED_TEXT);
+        ArrayList<Task> loadedTasks = reopened.load();
+        assertEquals(2, loadedTasks.size());
+        assertEquals("[T][ ] task 0", loadedTasks.get(0).toString());
+        assertEquals("[T][ ] task 1", loadedTasks.get(1).toString());
+        String journalBackupPath = reopened.getRecoveryReport().getJournalBackupPath();
+        assertNotNull(journalBackupPath);
+        assertEquals(3, Files.readAllLines(Path.of(journalBackupPath)).size());
+        assertFalse(Files.exists(tempDir.resolve("test_pixel.txt.journal")));
+
+        reopened.close();
+        Storage restarted = new Storage(testFilePath.toString(), StorageMode.JOURNAL, Durability.NONE,
+                SnapshotFormat.CHECKED_TEXT);
+        assertEquals(2, restarted.load().size());
+        assertNull(restarted.getRecoveryReport());
+    }
+
+    @Test
+    public void checkedText_taskAddedAfterRecovery_survivesRestart() throws PixelException, IOException {
+        Storage checked = new Storage(testFilePath.toString(), StorageMode.WRITE_BEHIND, Durability.PER_BATCH,
+                SnapshotFormat.CHECKED_TEXT);
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        checked.save(tasks);
+        tasks.add(new Todo("task 3"));
+        checked.recordAdd(tasks, tasks.get(3));
+        checked.close();
+        Files.writeString(testFilePath, Files.readString(testFilePath).replace("task 2", "tusk 2"));
+
+        Storage recovered = new Storage(testFilePath.toString(), StorageMode.WRITE_BEHIND, Durability.PER_BATCH,
+                SnapshotFormat.CHECKED_TEXT);
+        ArrayList<Task> loadedTasks = recovered.load();
+        String journalBackupPath = recovered.getRecoveryReport().getJournalBackupPath();
+        loadedTasks.add(new Todo("added after recovery"));
+        recovered.recordAdd(loadedTasks, loadedTasks.get(2));
+        recovered.close();
+
+        Storage restarted = new Storage(testFilePath.toString(), StorageMode.WRITE_BEHIND, Durability.PER_BATCH,
+                SnapshotFormat.CHECKED_TEXT);
+        ArrayList<Task> restartedTasks = restarted.load();
+        assertNull(restarted.getRecoveryReport());
+        assertEquals(3, restartedTasks.size());
+        assertEquals("[T][ ] added after recovery", restartedTasks.get(2).toString());
+        restarted.close();
+
+        // A second recovery keeps the first one's backups
+        Files.writeString(testFilePath, Files.readString(testFilePath).replace("task 1", "tusk 1"));
+        Storage recoveredAgain = new Storage(testFilePath.toString(), StorageMode.WRITE_BEHIND,
+                Durability.PER_BATCH, SnapshotFormat.CHECKED_TEXT);
+        assertEquals(1, recoveredAgain.load().size());
+        String backupPath = recoveredAgain.getRecoveryReport().getBackupPath();
+        assertTrue(Files.readString(Path.of(backupPath)).contains("tusk 1"));
+        assertTrue(Files.readString(tempDir.resolve("test_pixel.txt.corrupt")).contains("tusk 2"));
+        assertTrue(Files.readString(Path.of(journalBackupPath)).contains("task 3"));
+        recoveredAgain.close();
+    }
+
+    @Test
+    public void checkedText_corruptRecordInLargeFile_salvagesPrefix() throws PixelException, IOException {
+        Storage checked = new Storage(testFilePath.toString(), StorageMode.SNAPSHOT, Durability.NONE,
+                SnapshotFormat.CHECKED_TEXT);
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 60_000; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        checked.save(tasks);
+        String content = Files.readString(testFilePath);
+        Files.writeString(testFilePath, content.replace("task 45000 ", "task 4500X "));
+
+        ArrayList<Task> loadedTasks = checked.load();
+        assertEquals(45_000, loadedTasks.size());
+        assertEquals("task 44999", loadedTasks.get(44_999).getDescription());
+        assertEquals(45_002, checked.getRecoveryReport().getLineNumber());
+    }
+
+    @Test
+    public void checkedText_plainTextFile_loadsAllTasks() throws PixelException, IOException {
+        Files.writeString(testFilePath, "T | 0 | legacy" + System.lineSeparator());
+        Storage checked = new Storage(testFilePath.toString(), StorageMode.SNAPSHOT, Durability.NONE,
+                SnapshotFormat.CHECKED_TEXT);
+
+        ArrayList<Task> loadedTasks = checked.load();
+        assertEquals(1, loadedTasks.size());
+        assertNull(checked.getRecoveryReport());
+    }
 }
@@ -0,0 +1,77 @@
+package pixel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import pixel.task.Task;
+import pixel.task.TaskList;
+import pixel.task.Todo;
+
+public class TaskListTest {
+
+    @Test
+    public void addAndRemove_randomPositions_sameAsArrayList() {
+        Random random = new Random(13);
+        TaskList tasks = new TaskList();
+        ArrayList<Task> expected = new ArrayList<>();
+        for (int step = 0; step < 5000; step++) {
+            if (!expected.isEmpty() && random.nextInt(3) == 0) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), tasks.remove(index));
+            } else {
+                int index = random.nextInt(expected.size() + 1);
+                Task task = new Todo("t" + step);
+                expected.add(index, task);
+                tasks.add(index, task);
+            }
+
+            if (!expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.get(index), tasks.get(index));
+                assertEquals(index, tasks.indexOfId(expected.get(index).getId()));
+            }
+        }
+        assertEquals(expected, new ArrayList<>(tasks));
+    }
+
+    @Test
+    public void getById_afterRemove_findsOnlyHeldTasks() {
+        Task first = new Todo("first");
+        Task second = new Todo("second");
+        TaskList tasks = new TaskList(List.of(first, second));
+
+        tasks.remove(0);
+        assertNull(tasks.getById(first.getId()));
+        assertEquals(second, tasks.getById(second.getId()));
+        assertEquals(0, tasks.indexOfId(second.getId()));
+        assertEquals(-1, tasks.indexOf(first));
+        assertThrows(IllegalArgumentException.class, () -> tasks.add(second));
+    }
+
+    @Test
+    public void iteratorRemove_everyOtherTask_keepsOrder() {
+        ArrayList<Task> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add(new Todo("t" + i));
+        }
+        TaskList tasks = new TaskList(expected);
+
+        Iterator<Task> iterator = tasks.iterator();
+        for (int i = 0; iterator.hasNext(); i++) {
+            iterator.next();
+            if (i % 2 == 0) {
+                iterator.remove();
+            }
+        }
+        expected.removeIf(task -> Integer.parseInt(task.getDescription().substring(1)) % 2 == 0);
+        assertEquals(expected, new ArrayList<>(tasks));
+    }
+}
@@ -0,0 +1,37 @@
+package pixel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import pixel.task.Deadline;
+import pixel.task.Event;
+import pixel.task.Todo;
+
+public class TaskTest {
+
+    @Test
+    public void toString_everyType_rendersTypeStatusAndDates() {
+        assertEquals("[T][ ] read", new Todo("read").toString());
+        assertEquals("[D][ ] return book (by: Jan 15 2026 18:00)",
+                new Deadline("return book", LocalDateTime.of(2026, 1, 15, 18, 0)).toString());
+        assertEquals("[E][ ] meeting (from: Jan 16 2026 09:00 to: Jan 16 2026 10:30)",
+                new Event("meeting", LocalDateTime.of(2026, 1, 16, 9, 0), LocalDateTime.of(2026, 1, 16, 10, 30))
+                        .toString());
+    }
+
+    @Test
+    public void toString_reusedUntilMarked() {
+        Event event = new Event("meeting", LocalDateTime.of(2026, 1, 16, 9, 0), LocalDateTime.of(2026, 1, 16, 10, 30));
+        String line = event.toString();
+        assertSame(line, event.toString());
+
+        event.markAsDone();
+        assertEquals("[E][X] meeting (from: Jan 16 2026 09:00 to: Jan 16 2026 10:30)", event.toString());
+        event.markAsNotDone();
+        assertEquals(line, event.toString());
+    }
+}
@@ -0,0 +1,130 @@
+package pixel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import pixel.index.TimeIndex;
+import pixel.task.Deadline;
+import pixel.task.Event;
+import pixel.task.Task;
+import pixel.task.Todo;
+
+public class TimeIndexTest {
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Test
+    public void findBetween_deadlinesAndOverlappingEvents_inTimeOrder() {
+        ArrayList<Task> tasks = new ArrayList<>();
+        TimeIndex index = new TimeIndex();
+        index.reset(tasks);
+        Task longEvent = add(tasks, index, new Event("trip", START, START.plusDays(10)));
+        add(tasks, index, new Todo("read"));
+        Task deadline = add(tasks, index, new Deadline("report", START.plusDays(3)));
+        add(tasks, index, new Event("party", START.plusDays(6), START.plusDays(6).plusHours(3)));
+
+        assertEquals(List.of(longEvent, deadline), index.findBetween(START.plusDays(2), START.plusDays(5)));
+        assertEquals(List.of(deadline), index.findDueBy(START.plusDays(3)));
+        assertEquals(List.of(), index.findDueBy(START.plusDays(3).minusMinutes(1)));
+    }
+
+    @Test
+    public void findBetween_afterRandomChanges_sameAsScanningEveryTask() {
+        Random random = new Random(11);
+        ArrayList<Task> tasks = new ArrayList<>();
+        TimeIndex index = new TimeIndex();
+        index.reset(tasks);
+        for (int step = 0; step < 3000; step++) {
+            if (!tasks.isEmpty() && random.nextInt(3) == 0) {
+                index.remove(tasks.remove(random.nextInt(tasks.size())));
+            } else if (random.nextBoolean()) {
+                add(tasks, index, new Deadline("d" + step, START.plusHours(random.nextInt(200))));
+            } else {
+                LocalDateTime from = START.plusHours(random.nextInt(200));
+                add(tasks, index, new Event("e" + step, from, from.plusHours(random.nextInt(48))));
+            }
+
+            LocalDateTime from = START.plusHours(random.nextInt(220));
+            LocalDateTime to = from.plusHours(random.nextInt(30));
+            ArrayList<Task> expected = new ArrayList<>();
+            ArrayList<Task> expectedDue = new ArrayList<>();
+            for (Task task : tasks) {
+                LocalDateTime start = getStart(task);
+                LocalDateTime end = task instanceof Event ? ((Event) task).getTo() : start;
+                if (!start.isAfter(to) && !end.isBefore(from)) {
+                    expected.add(task);
+                }
+                if (task instanceof Deadline && !start.isAfter(to)) {
+                    expectedDue.add(task);
+                }
+            }
+            // Stable sorts keep tasks at the same time in list order
+            expected.sort(Comparator.comparing(TimeIndexTest::getStart));
+            expectedDue.sort(Comparator.comparing(TimeIndexTest::getStart));
+            assertEquals(expected, index.findBetween(from, to));
+            assertEquals(expectedDue, index.findDueBy(to));
+        }
+    }
+
+    @Test
+    public void findConflicts_randomEvents_sameAsComparingEveryPair() {
+        Random random = new Random(5);
+        ArrayList<Task> tasks = new ArrayList<>();
+        TimeIndex index = new TimeIndex();
+        index.reset(tasks);
+        for (int i = 0; i < 300; i++) {
+            LocalDateTime from = START.plusHours(random.nextInt(500));
+            add(tasks, index, new Event("e" + i, from, from.plusHours(random.nextInt(6))));
+        }
+
+        int pairCount = 0;
+        for (Task task : tasks) {
+            Event event = (Event) task;
+            ArrayList<Task> expected = new ArrayList<>();
+            for (Task other : tasks) {
+                if (other != event && isConflicting(event, (Event) other)) {
+                    expected.add(other);
+                }
+            }
+            pairCount += expected.size();
+            expected.sort(Comparator.comparing(TimeIndexTest::getStart));
+
+            ArrayList<Task> actual = index.findConflicting(event.getFrom(), event.getTo());
+            actual.remove(event);
+            assertEquals(expected.size(), actual.size());
+            assertTrue(actual.containsAll(expected));
+        }
+        assertEquals(pairCount / 2, index.findAllConflicts().size());
+    }
+
+    /**
+     * Two intervals conflict when they share more than an instant, or when one is an
+     * instant strictly inside the other.
+     */
+    private static boolean isConflicting(Event first, Event second) {
+        if (first.getFrom().equals(first.getTo())) {
+            return second.getFrom().isBefore(first.getFrom()) && second.getTo().isAfter(first.getFrom());
+        }
+        if (second.getFrom().equals(second.getTo())) {
+            return isConflicting(second, first);
+        }
+        return first.getFrom().isBefore(second.getTo()) && second.getFrom().isBefore(first.getTo());
+    }
+
+    private static LocalDateTime getStart(Task task) {
+        return task instanceof Deadline ? ((Deadline) task).getBy() : ((Event) task).getFrom();
+    }
+
+    private static Task add(ArrayList<Task> tasks, TimeIndex index, Task task) {
+        tasks.add(task);
+        index.add(task);
+        return task;
+    }
+}
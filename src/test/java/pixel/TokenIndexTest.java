@@ -0,0 +1,71 @@
+package pixel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import pixel.index.TokenIndex;
+import pixel.parser.SearchQuery;
+import pixel.task.Task;
+import pixel.task.Todo;
+
+public class TokenIndexTest {
+
+    @Test
+    public void find_substringsAcrossWords_matchesInListOrder() {
+        ArrayList<Task> tasks = new ArrayList<>();
+        TokenIndex index = new TokenIndex();
+        index.reset(tasks);
+        for (String description : new String[] {"Return BOOK", "read book club", "buy pen", "bookkeeping"}) {
+            Task task = new Todo(description);
+            tasks.add(task);
+            index.add(task);
+        }
+
+        assertEquals(List.of(tasks.get(0), tasks.get(1), tasks.get(3)), index.find(SearchQuery.compile("ook")));
+        assertEquals(List.of(tasks.get(1)), index.find(SearchQuery.compile("CLUB book")));
+        assertEquals(List.of(), index.find(SearchQuery.compile("book pen")));
+
+        index.remove(tasks.remove(0));
+        assertEquals(List.of(tasks.get(0), tasks.get(2)), index.find(SearchQuery.compile("book")));
+    }
+
+    @Test
+    public void find_afterRandomChanges_sameAsScanningEveryTask() {
+        String[] words = {"read", "Book", "bookmark", "pen", "PENCIL", "a", "ab", "cab"};
+        Random random = new Random(7);
+        ArrayList<Task> tasks = new ArrayList<>();
+        TokenIndex index = new TokenIndex();
+        index.reset(tasks);
+        for (int step = 0; step < 2000; step++) {
+            if (!tasks.isEmpty() && random.nextInt(4) == 0) {
+                index.remove(tasks.remove(random.nextInt(tasks.size())));
+            } else {
+                Task task = new Todo(randomText(words, random));
+                tasks.add(task);
+                index.add(task);
+            }
+
+            SearchQuery query = SearchQuery.compile(randomText(words, random).substring(1));
+            ArrayList<Task> expected = new ArrayList<>();
+            for (Task task : tasks) {
+                if (query.matches(task.getDescription())) {
+                    expected.add(task);
+                }
+            }
+            assertEquals(expected, index.find(query));
+        }
+    }
+
+    private static String randomText(String[] words, Random random) {
+        StringBuilder text = new StringBuilder();
+        for (int i = random.nextInt(3) + 1; i > 0; i--) {
+            text.append(words[random.nextInt(words.length)]).append(random.nextBoolean() ? " " : "  ");
+        }
+        return text.toString().trim();
+    }
+}